@@ -0,0 +1,13 @@
+use `xxl-conf`;
+
+-- upgrade existing database to 1.6.2, fresh install use xxl-conf.sql instead
+
+-- 配置版本：取自最近一次变更消息ID；存量配置为0，首次全量同步后生效
+ALTER TABLE `xxl_conf_node` ADD COLUMN `version` bigint(20) NOT NULL DEFAULT '0' COMMENT '配置版本，取自最近一次变更消息ID';
+
+-- 变更集：批量发布的多条消息共享，整体生效
+ALTER TABLE `xxl_conf_node_msg` MODIFY COLUMN `id` int(11) NOT NULL AUTO_INCREMENT COMMENT '消息ID，单调递增，同时作为配置版本';
+ALTER TABLE `xxl_conf_node_msg` ADD COLUMN `changeset` varchar(64) DEFAULT NULL COMMENT '变更集ID，批量发布的多条消息共享，整体生效';
+ALTER TABLE `xxl_conf_node_msg` ADD INDEX `I_changeset` (`changeset`);
+
+COMMIT;
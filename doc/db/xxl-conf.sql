@@ -29,6 +29,7 @@ CREATE TABLE `xxl_conf_node` (
   `appname` varchar(100) NOT NULL COMMENT '所属项目AppName',
   `title` varchar(100) NOT NULL COMMENT '配置描述',
   `value` varchar(2000) DEFAULT NULL COMMENT '配置Value',
+  `version` bigint(20) NOT NULL DEFAULT '0' COMMENT '配置版本，取自最近一次变更消息ID',
   PRIMARY KEY (`env`,`key`)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8;
 
@@ -42,19 +43,21 @@ CREATE TABLE `xxl_conf_node_log` (
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8;
 
 CREATE TABLE `xxl_conf_node_msg` (
-  `id` int(11) NOT NULL AUTO_INCREMENT,
+  `id` int(11) NOT NULL AUTO_INCREMENT COMMENT '消息ID，单调递增，同时作为配置版本',
   `addtime` datetime NOT NULL,
   `env` varchar(100) NOT NULL COMMENT 'Env',
   `key` varchar(200) NOT NULL COMMENT '配置Key',
   `value` varchar(2000) DEFAULT NULL COMMENT '配置Value',
-  PRIMARY KEY (`id`)
+  `changeset` varchar(64) DEFAULT NULL COMMENT '变更集ID，批量发布的多条消息共享，整体生效',
+  PRIMARY KEY (`id`),
+  KEY `I_changeset` (`changeset`)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8;
 
 
 INSERT INTO `xxl_conf_env` VALUES ('test', '测试环境', 1), ('ppe', '预发布环境', 2), ('product', '生产环境', 3);
 INSERT INTO `xxl_conf_project` VALUES ('default', '示例项目');
 INSERT INTO `xxl_conf_user` VALUES ('admin', 'e10adc3949ba59abbe56e057f20f883e', 1, NULL), ('user', 'e10adc3949ba59abbe56e057f20f883e', 0, 'default#test,default#ppe');
-INSERT INTO `xxl_conf_node` VALUES ('test', 'default.key01', 'default', '测试配置01', '1'), ('test', 'default.key02', 'default', '测试配置02', '2'), ('test', 'default.key03', 'default', '测试配置03', '3');
+INSERT INTO `xxl_conf_node` VALUES ('test', 'default.key01', 'default', '测试配置01', '1', 0), ('test', 'default.key02', 'default', '测试配置02', '2', 0), ('test', 'default.key03', 'default', '测试配置03', '3', 0);
 
 
 COMMIT;
@@ -18,9 +18,11 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseBody;
 import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import javax.annotation.Resource;
 import javax.servlet.http.HttpServletRequest;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 
@@ -129,6 +131,44 @@ public class ConfController {
 		return xxlConfNodeService.update(xxlConfNode, xxlConfUser, loginEnv);
 	}
 
+	/**
+	 * batch update, publish in one change set
+	 *
+	 * request param "key" and "value" repeated, in same order; read raw, value with "," not split
+	 *
+	 * @return
+	 */
+	@RequestMapping("/batchUpdate")
+	@ResponseBody
+	public ReturnT<String> batchUpdate(HttpServletRequest request){
+
+		XxlConfUser xxlConfUser = (XxlConfUser) request.getAttribute(LoginService.LOGIN_IDENTITY);
+		String loginEnv = (String) request.getAttribute(CURRENT_ENV);
+
+		String[] key = request.getParameterValues("key");
+		String[] value = request.getParameterValues("value");
+
+		// valid
+		if (key==null || key.length==0) {
+			return new ReturnT<String>(500, "配置Key不可为空");
+		}
+		if (value==null || value.length!=key.length) {
+			return new ReturnT<String>(500, "配置Value参数非法");
+		}
+
+		// fill env
+		List<XxlConfNode> xxlConfNodeList = new ArrayList<>();
+		for (int i = 0; i < key.length; i++) {
+			XxlConfNode xxlConfNode = new XxlConfNode();
+			xxlConfNode.setEnv(loginEnv);
+			xxlConfNode.setKey(key[i]);
+			xxlConfNode.setValue(value[i]);
+			xxlConfNodeList.add(xxlConfNode);
+		}
+
+		return xxlConfNodeService.batchUpdate(xxlConfNodeList, xxlConfUser, loginEnv);
+	}
+
 	/*@RequestMapping("/syncConf")
 	@ResponseBody
 	public ReturnT<String> syncConf(HttpServletRequest request,
@@ -150,7 +190,7 @@ public class ConfController {
 	/**
 	 * 配置查询 API
 	 *
-	 * 说明：查询配置数据；
+	 * 说明：查询配置数据；指定 revision 时，响应数据为 {revision：快照版本, data：变更配置, revisions：变更配置版本}；
 	 *
 	 * ------
 	 * 地址格式：{配置中心跟地址}/find
@@ -159,6 +199,8 @@ public class ConfController {
 	 *  1、accessToken：请求令牌；
 	 *  2、env：环境标识
 	 *  3、keys：配置Key列表
+	 *  4、revision：客户端最近一次获取的配置版本，选填；非空时仅响应该版本之后变更的配置
+	 *  5、sessionId、digest：会话ID及Key列表摘要，选填；keys 为空时使用会话Key列表（find 需指定 revision），参考 session 接口
 	 *
 	 * 请求数据格式如下，放置在 RequestBody 中，JSON格式：
 	 *
@@ -168,7 +210,8 @@ public class ConfController {
 	 *         "keys" : [
 	 *             "key01",
 	 *             "key02"
-	 *         ]
+	 *         ],
+	 *         "revision" : 100
 	 *     }
 	 *
 	 * @param data
@@ -177,7 +220,7 @@ public class ConfController {
 	@RequestMapping("/find")
 	@ResponseBody
 	@PermessionLimit(limit = false)
-	public ReturnT<Map<String, String>> find(@RequestBody(required = false) String data){
+	public ReturnT<?> find(@RequestBody(required = false) String data){
 
 		// parse data
 		XxlConfParamVO confParamVO = null;
@@ -189,19 +232,30 @@ public class ConfController {
 		String accessToken = null;
 		String env = null;
 		List<String> keys = null;
+		String sessionId = null;
+		String digest = null;
+		Long revision = null;
 		if (confParamVO != null) {
 			accessToken = confParamVO.getAccessToken();
 			env = confParamVO.getEnv();
 			keys = confParamVO.getKeys();
+			sessionId = confParamVO.getSessionId();
+			digest = confParamVO.getDigest();
+			revision = confParamVO.getRevision();
 		}
 
+		// changed since revision
+		if (revision != null) {
+			return xxlConfNodeService.find(accessToken, env, keys, sessionId, digest, revision);
+		}
 		return xxlConfNodeService.find(accessToken, env, keys);
 	}
 
 	/**
 	 * 配置监控 API
 	 *
-	 * 说明：long-polling 接口，主动阻塞一段时间（默认30s）；直至阻塞超时或配置信息变动时响应；
+	 * 说明：long-polling 接口，主动阻塞一段时间（默认30s）；直至阻塞超时或配置信息变动时响应；响应数据为变动的配置Key列表，超时时为空列表；
+	 *      指定 revision 时，若存在该版本之后变更的配置将立即响应；响应数据同 find 指定 revision 时 {revision：快照版本, data：变更配置, revisions：变更配置版本}，直接携带变更配置，无需再次 find；
 	 *
 	 * ------
 	 * 地址格式：{配置中心跟地址}/monitor
@@ -210,6 +264,8 @@ public class ConfController {
 	 *  1、accessToken：请求令牌；
 	 *  2、env：环境标识
 	 *  3、keys：配置Key列表
+	 *  4、revision：客户端最近一次获取的配置版本，选填；非空时仅响应该版本之后变更的配置
+	 *  5、sessionId、digest：会话ID及Key列表摘要，选填；keys 为空时使用会话Key列表（find 需指定 revision），参考 session 接口
 	 *
 	 * 请求数据格式如下，放置在 RequestBody 中，JSON格式：
 	 *
@@ -219,7 +275,8 @@ public class ConfController {
 	 *         "keys" : [
 	 *             "key01",
 	 *             "key02"
-	 *         ]
+	 *         ],
+	 *         "revision" : 100
 	 *     }
 	 *
 	 * @param data
@@ -228,7 +285,117 @@ public class ConfController {
 	@RequestMapping("/monitor")
 	@ResponseBody
 	@PermessionLimit(limit = false)
-	public DeferredResult<ReturnT<String>> monitor(@RequestBody(required = false) String data){
+	public DeferredResult<ReturnT<?>> monitor(@RequestBody(required = false) String data){
+
+		// parse data
+		XxlConfParamVO confParamVO = null;
+		try {
+			confParamVO = (XxlConfParamVO) JacksonUtil.readValue(data, XxlConfParamVO.class);
+		} catch (Exception e) { }
+
+		// parse param
+		String accessToken = null;
+		String env = null;
+		List<String> keys = null;
+		String sessionId = null;
+		String digest = null;
+		Long revision = null;
+		if (confParamVO != null) {
+			accessToken = confParamVO.getAccessToken();
+			env = confParamVO.getEnv();
+			keys = confParamVO.getKeys();
+			sessionId = confParamVO.getSessionId();
+			digest = confParamVO.getDigest();
+			revision = confParamVO.getRevision();
+		}
+
+		return xxlConfNodeService.monitor(accessToken, env, keys, sessionId, digest, revision);
+	}
+
+	/**
+	 * 配置推送 API
+	 *
+	 * 说明：Server-Sent Events 长连接接口，订阅一次，持续推送配置变更，作为 monitor 长轮询的替代；
+	 *      事件 "conf"：数据格式同 find 指定 revision 时的响应数据 {revision：快照版本, data：变更配置, revisions：变更配置版本}，订阅后首先推送 revision 之后变更的配置；
+	 *      事件 "error"：订阅失败，数据为 {code, msg}，随后连接关闭；
+	 *      连接默认保持5min，期间每10s发送心跳注释；连接关闭后客户端携带最新 revision 重新订阅；
+	 *
+	 * ------
+	 * 地址格式：{配置中心跟地址}/stream
+	 *
+	 * 请求参数说明：同 monitor
+	 *
+	 * @param data
+	 * @return
+	 */
+	@RequestMapping("/stream")
+	@PermessionLimit(limit = false)
+	public SseEmitter stream(@RequestBody(required = false) String data){
+
+		// parse data
+		XxlConfParamVO confParamVO = null;
+		try {
+			confParamVO = (XxlConfParamVO) JacksonUtil.readValue(data, XxlConfParamVO.class);
+		} catch (Exception e) { }
+
+		// parse param
+		String accessToken = null;
+		String env = null;
+		List<String> keys = null;
+		String sessionId = null;
+		String digest = null;
+		Long revision = null;
+		if (confParamVO != null) {
+			accessToken = confParamVO.getAccessToken();
+			env = confParamVO.getEnv();
+			keys = confParamVO.getKeys();
+			sessionId = confParamVO.getSessionId();
+			digest = confParamVO.getDigest();
+			revision = confParamVO.getRevision();
+		}
+
+		return xxlConfNodeService.stream(accessToken, env, keys, sessionId, digest, revision);
+	}
+
+	/**
+	 * 配置会话 API
+	 *
+	 * 说明：注册配置Key列表，响应 {sessionId：会话ID, digest：Key列表摘要}；之后 find（指定 revision 时）、monitor、stream 仅需携带 sessionId 及 digest，无需重复发送 keys；
+	 *      指定 sessionId 时，按 addKeys、removeKeys 增量更新会话Key列表；
+	 *      摘要为排序后Key列表（"\n" 分隔）的 MD5，客户端据此校验会话Key列表是否一致；
+	 *      会话超过有效期（默认10min）未访问将失效，失效或摘要不一致时响应 code=410，客户端需重新注册；
+	 *
+	 * ------
+	 * 地址格式：{配置中心跟地址}/session
+	 *
+	 * 请求参数说明：
+	 *  1、accessToken：请求令牌；
+	 *  2、env：环境标识
+	 *  3、keys：配置Key列表，注册会话时必填
+	 *  4、sessionId：会话ID，更新会话时必填
+	 *  5、addKeys、removeKeys：新增、移除的配置Key列表，更新会话时选填
+	 *
+	 * 请求数据格式如下，放置在 RequestBody 中，JSON格式：
+	 *
+	 *     {
+	 *         "accessToken" : "xx",
+	 *         "env" : "xx",
+	 *         "sessionId" : "xx",
+	 *         "addKeys" : [
+	 *             "key03"
+	 *         ],
+	 *         "removeKeys" : [
+	 *             "key01"
+	 *         ]
+	 *     }
+	 *
+	 * @param data
+	 * @return
+	 */
+	@RequestMapping("/session")
+	@ResponseBody
+	@PermessionLimit(limit = false)
+	public ReturnT<?> session(@RequestBody(required = false) String data){
 
 		// parse data
 		XxlConfParamVO confParamVO = null;
@@ -240,13 +407,19 @@ public class ConfController {
 		String accessToken = null;
 		String env = null;
 		List<String> keys = null;
+		String sessionId = null;
+		List<String> addKeys = null;
+		List<String> removeKeys = null;
 		if (confParamVO != null) {
 			accessToken = confParamVO.getAccessToken();
 			env = confParamVO.getEnv();
 			keys = confParamVO.getKeys();
+			sessionId = confParamVO.getSessionId();
+			addKeys = confParamVO.getAddKeys();
+			removeKeys = confParamVO.getRemoveKeys();
 		}
 
-		return xxlConfNodeService.monitor(accessToken, env, keys);
+		return xxlConfNodeService.session(accessToken, env, keys, sessionId, addKeys, removeKeys);
 	}
 
 
@@ -13,6 +13,7 @@ public class XxlConfNode {
 	private String appname; 	// 所属项目AppName
 	private String title; 		// 配置描述
 	private String value;		// 配置Value
+	private long version;		// 配置版本，取自最近一次变更消息ID，单调递增
 
 	// plugin
 	/*private String zkValue; 				// ZK中配置Value	// TODO, delete*/
@@ -58,6 +59,14 @@ public class XxlConfNode {
 		this.value = value;
 	}
 
+	public long getVersion() {
+		return version;
+	}
+
+	public void setVersion(long version) {
+		this.version = version;
+	}
+
 	/*public String getZkValue() {
 		return zkValue;
 	}
@@ -12,6 +12,7 @@ public class XxlConfNodeMsg {
 	private String env;
 	private String key;
 	private String value;
+	private String changeset;		// change set id, shared by msg published together
 
 	public int getId() {
 		return id;
@@ -53,4 +54,12 @@ public class XxlConfNodeMsg {
 		this.value = value;
 	}
 
+	public String getChangeset() {
+		return changeset;
+	}
+
+	public void setChangeset(String changeset) {
+		this.changeset = changeset;
+	}
+
 }
@@ -0,0 +1,247 @@
+package com.xxl.conf.admin.core.monitor;
+
+import com.xxl.conf.admin.core.util.ReturnT;
+import com.xxl.conf.core.model.XxlConfDataVO;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * conf monitor registry, long-polling monitors indexed by "env + key"
+ *
+ * 1、each key holds a concurrent set of monitors;
+ * 2、monitor is removed from all its keys on timeout/completion, keys never updated will not leak;
+ * 3、monitor is completed exactly once, no matter how many of its keys are updated;
+ * 4、monitor result is built for each monitor with its own keys: inline (key, value, revision) for client with revision, else key list;
+ * 5、wake-up of too many monitors is spread in a random delay window, avoid reconnect wave of phase-locked clients;
+ *    only inline monitor is spread: timeout in delay responses client revision, change found on reconnect; key list monitor (legacy client) completed at once;
+ */
+public class XxlConfMonitorRegistry {
+
+    /**
+     * conf monitor, one long-polling request
+     */
+    public static class Monitor {
+
+        private final String env;
+        private final Set<String> keys;
+        private final DeferredResult<ReturnT<?>> deferredResult;
+        private final boolean inline;
+        private final AtomicBoolean completed = new AtomicBoolean(false);
+        private final AtomicBoolean registered = new AtomicBoolean(false);
+
+        public Monitor(String env, Set<String> keys, DeferredResult<ReturnT<?>> deferredResult, boolean inline) {
+            this.env = env;
+            this.keys = keys;
+            this.deferredResult = deferredResult;
+            this.inline = inline;
+        }
+
+        public String getEnv() {
+            return env;
+        }
+
+        public Set<String> getKeys() {
+            return keys;
+        }
+
+        public DeferredResult<ReturnT<?>> getDeferredResult() {
+            return deferredResult;
+        }
+
+        public boolean isInline() {
+            return inline;
+        }
+
+        /**
+         * complete monitor, only the first call takes effect
+         *
+         * @param result
+         * @return
+         */
+        public boolean complete(ReturnT<?> result) {
+            if (completed.compareAndSet(false, true)) {
+                return deferredResult.setResult(result);
+            }
+            return false;
+        }
+    }
+
+    private ConcurrentMap<String, Set<Monitor>> monitorMap = new ConcurrentHashMap<>();
+    private AtomicInteger monitorCount = new AtomicInteger(0);
+
+    /**
+     * wake-up spread: monitors completed in one notify more than threshold, each delayed randomly in window; threshold<=0 means never
+     */
+    private volatile int spreadThreshold = 0;
+    private volatile long spreadWindow = 0;      // ms
+    private ScheduledExecutorService spreadExecutor = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread thread = new Thread(r, "xxl-conf, XxlConfMonitorRegistry-spreadExecutor");
+            thread.setDaemon(true);
+            return thread;
+        }
+    });
+
+    public void setSpread(int spreadThreshold, long spreadWindow) {
+        this.spreadThreshold = spreadThreshold;
+        this.spreadWindow = spreadWindow;
+    }
+
+    public void stop() {
+        spreadExecutor.shutdownNow();
+    }
+
+    private String parseMonitorKey(String env, String key){
+        return env.concat("#").concat(key);
+    }
+
+    /**
+     * register monitor, and remove it on timeout/completion
+     *
+     * @param monitor
+     */
+    public void register(final Monitor monitor) {
+        Runnable removeCallback = new Runnable() {
+            @Override
+            public void run() {
+                monitor.completed.set(true);
+                remove(monitor);
+            }
+        };
+        monitor.getDeferredResult().onTimeout(removeCallback);
+        monitor.getDeferredResult().onCompletion(removeCallback);
+
+        if (monitor.registered.compareAndSet(false, true)) {
+            monitorCount.incrementAndGet();
+        }
+        for (String key: monitor.getKeys()) {
+            String monitorKey = parseMonitorKey(monitor.getEnv(), key);
+            while (true) {
+                Set<Monitor> monitorSet = monitorMap.get(monitorKey);
+                if (monitorSet == null) {
+                    Set<Monitor> newMonitorSet = Collections.newSetFromMap(new ConcurrentHashMap<Monitor, Boolean>());
+                    monitorSet = monitorMap.putIfAbsent(monitorKey, newMonitorSet);
+                    if (monitorSet == null) {
+                        monitorSet = newMonitorSet;
+                    }
+                }
+                monitorSet.add(monitor);
+
+                // set removed by concurrent cleaning, retry
+                if (monitorMap.get(monitorKey) == monitorSet) {
+                    break;
+                }
+                monitorSet.remove(monitor);
+            }
+        }
+
+        // completed before watched, such as timeout
+        if (monitor.completed.get()) {
+            remove(monitor);
+        }
+    }
+
+    /**
+     * remove monitor from all its keys
+     *
+     * @param monitor
+     */
+    public void remove(Monitor monitor) {
+        for (String key: monitor.getKeys()) {
+            String monitorKey = parseMonitorKey(monitor.getEnv(), key);
+            Set<Monitor> monitorSet = monitorMap.get(monitorKey);
+            if (monitorSet != null) {
+                monitorSet.remove(monitor);
+                if (monitorSet.isEmpty()) {
+                    monitorMap.remove(monitorKey, monitorSet);
+                }
+            }
+        }
+        if (monitor.registered.compareAndSet(true, false)) {
+            monitorCount.decrementAndGet();
+        }
+    }
+
+    /**
+     * notify monitors of updated conf, each monitor will be completed once with its own updated keys
+     *
+     * @param env
+     * @param data          key -> value, "" if deleted
+     * @param revisions     key -> revision
+     * @param revision      safe revision
+     * @return  completed (or scheduled) monitor count
+     */
+    public int notify(String env, Map<String, String> data, Map<String, Long> revisions, long revision) {
+
+        // group by monitor
+        Map<Monitor, XxlConfDataVO> monitorDataMap = new HashMap<>();
+        for (Map.Entry<String, String> item: data.entrySet()) {
+            Set<Monitor> monitorSet = monitorMap.get(parseMonitorKey(env, item.getKey()));
+            if (monitorSet == null) {
+                continue;
+            }
+            for (Monitor monitor: monitorSet) {
+                XxlConfDataVO dataVO = monitorDataMap.get(monitor);
+                if (dataVO == null) {
+                    dataVO = new XxlConfDataVO();
+                    dataVO.setRevision(revision);
+                    dataVO.setData(new HashMap<String, String>());
+                    dataVO.setRevisions(new HashMap<String, Long>());
+                    monitorDataMap.put(monitor, dataVO);
+                }
+                dataVO.getData().put(item.getKey(), item.getValue());
+                dataVO.getRevisions().put(item.getKey(), revisions.get(item.getKey()));
+            }
+        }
+
+        // complete, spread when too many
+        boolean spread = spreadThreshold>0 && spreadWindow>0 && monitorDataMap.size()>spreadThreshold;
+        int count = 0;
+        for (Map.Entry<Monitor, XxlConfDataVO> item: monitorDataMap.entrySet()) {
+            final Monitor monitor = item.getKey();
+
+            final ReturnT<?> result = monitor.isInline()
+                    ?new ReturnT<XxlConfDataVO>(item.getValue())
+                    :new ReturnT<List<String>>(new ArrayList<String>(item.getValue().getData().keySet()));
+            result.setMsg("Monitor key update.");
+
+            // removed first, later change will be found by revision when client reconnect
+            remove(monitor);
+
+            // spread inline only; legacy client has no revision, timeout in delay would lose this change
+            if (spread && monitor.isInline()) {
+                try {
+                    spreadExecutor.schedule(new Runnable() {
+                        @Override
+                        public void run() {
+                            monitor.complete(result);
+                        }
+                    }, ThreadLocalRandom.current().nextLong(spreadWindow), TimeUnit.MILLISECONDS);
+                    count++;
+                    continue;
+                } catch (RejectedExecutionException e) {
+                    // stopped, complete now
+                }
+            }
+            if (monitor.complete(result)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * monitor count, in progress
+     *
+     * @return
+     */
+    public int monitorCount() {
+        return monitorCount.get();
+    }
+
+}
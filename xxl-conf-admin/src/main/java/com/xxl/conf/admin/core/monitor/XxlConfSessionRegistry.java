@@ -0,0 +1,200 @@
+package com.xxl.conf.admin.core.monitor;
+
+import com.xxl.conf.core.util.KeyDigestUtil;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * conf session registry, key set registered once and referenced by session id in find/monitor/stream
+ *
+ * 1、session keys validated on register/update, not on each request;
+ * 2、session updated incrementally (add/remove keys), digest of key set returned for client to check consistency;
+ * 3、session expired when not accessed within ttl, client re-register on "session invalid";
+ */
+public class XxlConfSessionRegistry {
+
+    /**
+     * conf session, immutable except access time; replaced on update
+     */
+    public static class Session {
+
+        private final String sessionId;
+        private final String env;
+        private final Set<String> keys;          // all keys, invalid key included (responsed as empty)
+        private final Set<String> validKeys;     // keys valid, for index and monitor
+        private final String digest;
+        private volatile long accessTime;
+
+        public Session(String sessionId, String env, Set<String> keys, Set<String> validKeys, String digest) {
+            this.sessionId = sessionId;
+            this.env = env;
+            this.keys = Collections.unmodifiableSet(keys);
+            this.validKeys = Collections.unmodifiableSet(validKeys);
+            this.digest = digest;
+            this.accessTime = System.currentTimeMillis();
+        }
+
+        public String getSessionId() {
+            return sessionId;
+        }
+
+        public String getEnv() {
+            return env;
+        }
+
+        public Set<String> getKeys() {
+            return keys;
+        }
+
+        public Set<String> getValidKeys() {
+            return validKeys;
+        }
+
+        public String getDigest() {
+            return digest;
+        }
+    }
+
+    /**
+     * key validator, same as find
+     */
+    public interface KeyValidator {
+        public boolean valid(String key);
+    }
+
+    private ConcurrentMap<String, Session> sessionMap = new ConcurrentHashMap<>();
+    private final KeyValidator keyValidator;
+
+    public XxlConfSessionRegistry(KeyValidator keyValidator) {
+        this.keyValidator = keyValidator;
+    }
+
+    /**
+     * parse keys of request, not registered
+     *
+     * @param env
+     * @param keys
+     * @return
+     */
+    public Session parse(String env, Collection<String> keys) {
+        return parse(null, env, keys, false);
+    }
+
+    private Session parse(String sessionId, String env, Collection<String> keys, boolean digest) {
+        Set<String> keySet = new HashSet<>();
+        Set<String> validKeySet = new HashSet<>();
+        for (String key: keys) {
+            if (key == null) {
+                continue;
+            }
+            keySet.add(key);
+            if (keyValidator.valid(key)) {
+                validKeySet.add(key);
+            }
+        }
+        return new Session(sessionId, env, keySet, validKeySet, digest?KeyDigestUtil.digest(keySet):null);
+    }
+
+    /**
+     * register session
+     *
+     * @param env
+     * @param keys
+     * @return
+     */
+    public Session register(String env, Collection<String> keys) {
+        Session session = parse(UUID.randomUUID().toString().replaceAll("-", ""), env, keys, true);
+        sessionMap.put(session.getSessionId(), session);
+        return session;
+    }
+
+    /**
+     * update session keys incrementally
+     *
+     * @param sessionId
+     * @param env
+     * @param addKeys
+     * @param removeKeys
+     * @return  null when session invalid
+     */
+    public Session update(String sessionId, String env, Collection<String> addKeys, Collection<String> removeKeys) {
+        while (true) {
+            Session session = get(sessionId, env, null);
+            if (session == null) {
+                return null;
+            }
+
+            // copy, only added keys validated
+            Set<String> keys = new HashSet<>(session.getKeys());
+            Set<String> validKeys = new HashSet<>(session.getValidKeys());
+            if (removeKeys != null) {
+                keys.removeAll(removeKeys);
+                validKeys.removeAll(removeKeys);
+            }
+            if (addKeys != null) {
+                for (String key: addKeys) {
+                    if (key!=null && keys.add(key) && keyValidator.valid(key)) {
+                        validKeys.add(key);
+                    }
+                }
+            }
+
+            // replace, retry when updated concurrently
+            Session newSession = new Session(sessionId, env, keys, validKeys, KeyDigestUtil.digest(keys));
+            if (sessionMap.replace(sessionId, session, newSession)) {
+                return newSession;
+            }
+        }
+    }
+
+    /**
+     * get session, and refresh access time
+     *
+     * @param sessionId
+     * @param env
+     * @param digest    optional, session invalid when not match
+     * @return  null when session invalid (not found, expired, env or digest not match)
+     */
+    public Session get(String sessionId, String env, String digest) {
+        if (sessionId == null) {
+            return null;
+        }
+        Session session = sessionMap.get(sessionId);
+        if (session==null
+                || !session.getEnv().equals(env)
+                || (digest!=null && !digest.equals(session.getDigest()))) {
+            return null;
+        }
+        session.accessTime = System.currentTimeMillis();
+        return session;
+    }
+
+    /**
+     * clean session expired
+     *
+     * @param ttl   ms
+     * @return  cleaned session count
+     */
+    public int clean(long ttl) {
+        long expireTime = System.currentTimeMillis() - ttl;
+        int count = 0;
+        for (Session session: sessionMap.values()) {
+            if (session.accessTime < expireTime && sessionMap.remove(session.getSessionId(), session)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * session count, registered
+     *
+     * @return
+     */
+    public int sessionCount() {
+        return sessionMap.size();
+    }
+
+}
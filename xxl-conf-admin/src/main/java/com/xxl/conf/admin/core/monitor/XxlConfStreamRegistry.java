@@ -0,0 +1,223 @@
+package com.xxl.conf.admin.core.monitor;
+
+import com.xxl.conf.core.model.XxlConfDataVO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * conf stream registry, persistent server-sent event streams indexed by "env + key"
+ *
+ * 1、stream subscribes once, conf change is pushed as event "conf" (same as find result: revision, data, revisions);
+ * 2、conf changes applied together are pushed in one event, each stream only receives its own keys;
+ * 3、stream is removed from all its keys on timeout/completion/send fail, heartbeat comment detects broken connection;
+ */
+public class XxlConfStreamRegistry {
+    private static Logger logger = LoggerFactory.getLogger(XxlConfStreamRegistry.class);
+
+    public static final String EVENT_CONF = "conf";
+    public static final String EVENT_ERROR = "error";
+
+    /**
+     * conf stream, one subscribe request
+     */
+    public static class Stream {
+
+        private final String env;
+        private final Set<String> keys;
+        private final SseEmitter emitter;
+        private final AtomicBoolean completed = new AtomicBoolean(false);
+
+        public Stream(String env, Set<String> keys, SseEmitter emitter) {
+            this.env = env;
+            this.keys = keys;
+            this.emitter = emitter;
+        }
+
+        public String getEnv() {
+            return env;
+        }
+
+        public Set<String> getKeys() {
+            return keys;
+        }
+
+        public SseEmitter getEmitter() {
+            return emitter;
+        }
+
+        /**
+         * send event, serial for each stream; complete stream when send fail
+         *
+         * @param event
+         * @return
+         */
+        public synchronized boolean send(SseEmitter.SseEventBuilder event) {
+            if (completed.get()) {
+                return false;
+            }
+            try {
+                emitter.send(event);
+                return true;
+            } catch (Exception e) {
+                logger.debug(">>>>>>>>>>> xxl-conf, stream send fail: {}", e.getMessage());
+                complete();
+                return false;
+            }
+        }
+
+        /**
+         * complete stream, only the first call takes effect
+         */
+        public void complete() {
+            if (completed.compareAndSet(false, true)) {
+                try {
+                    emitter.complete();
+                } catch (Exception e) {
+                    logger.debug(">>>>>>>>>>> xxl-conf, stream complete fail: {}", e.getMessage());
+                }
+            }
+        }
+    }
+
+    private ConcurrentMap<String, Set<Stream>> streamMap = new ConcurrentHashMap<>();
+    private Set<Stream> streamSet = Collections.newSetFromMap(new ConcurrentHashMap<Stream, Boolean>());
+
+    private String parseStreamKey(String env, String key){
+        return env.concat("#").concat(key);
+    }
+
+    /**
+     * register stream, and remove it on timeout/completion
+     *
+     * @param stream
+     */
+    public void register(final Stream stream) {
+        Runnable removeCallback = new Runnable() {
+            @Override
+            public void run() {
+                stream.completed.set(true);
+                remove(stream);
+            }
+        };
+        stream.getEmitter().onTimeout(removeCallback);
+        stream.getEmitter().onCompletion(removeCallback);
+
+        streamSet.add(stream);
+        for (String key: stream.getKeys()) {
+            String streamKey = parseStreamKey(stream.getEnv(), key);
+            while (true) {
+                Set<Stream> keyStreamSet = streamMap.get(streamKey);
+                if (keyStreamSet == null) {
+                    Set<Stream> newStreamSet = Collections.newSetFromMap(new ConcurrentHashMap<Stream, Boolean>());
+                    keyStreamSet = streamMap.putIfAbsent(streamKey, newStreamSet);
+                    if (keyStreamSet == null) {
+                        keyStreamSet = newStreamSet;
+                    }
+                }
+                keyStreamSet.add(stream);
+
+                // set removed by concurrent cleaning, retry
+                if (streamMap.get(streamKey) == keyStreamSet) {
+                    break;
+                }
+                keyStreamSet.remove(stream);
+            }
+        }
+
+        // completed before watched
+        if (stream.completed.get()) {
+            remove(stream);
+        }
+    }
+
+    /**
+     * remove stream from all its keys
+     *
+     * @param stream
+     */
+    public void remove(Stream stream) {
+        for (String key: stream.getKeys()) {
+            String streamKey = parseStreamKey(stream.getEnv(), key);
+            Set<Stream> keyStreamSet = streamMap.get(streamKey);
+            if (keyStreamSet != null) {
+                keyStreamSet.remove(stream);
+                if (keyStreamSet.isEmpty()) {
+                    streamMap.remove(streamKey, keyStreamSet);
+                }
+            }
+        }
+        streamSet.remove(stream);
+    }
+
+    /**
+     * push conf change, one event for each stream with its own keys
+     *
+     * @param env
+     * @param data          key -> value, "" if deleted
+     * @param revisions     key -> revision
+     * @param revision      safe revision
+     * @return  pushed stream count
+     */
+    public int push(String env, Map<String, String> data, Map<String, Long> revisions, long revision) {
+
+        // group by stream
+        Map<Stream, XxlConfDataVO> streamDataMap = new HashMap<>();
+        for (Map.Entry<String, String> item: data.entrySet()) {
+            Set<Stream> keyStreamSet = streamMap.get(parseStreamKey(env, item.getKey()));
+            if (keyStreamSet == null) {
+                continue;
+            }
+            for (Stream stream: keyStreamSet) {
+                XxlConfDataVO dataVO = streamDataMap.get(stream);
+                if (dataVO == null) {
+                    dataVO = new XxlConfDataVO();
+                    dataVO.setRevision(revision);
+                    dataVO.setData(new HashMap<String, String>());
+                    dataVO.setRevisions(new HashMap<String, Long>());
+                    streamDataMap.put(stream, dataVO);
+                }
+                dataVO.getData().put(item.getKey(), item.getValue());
+                dataVO.getRevisions().put(item.getKey(), revisions.get(item.getKey()));
+            }
+        }
+
+        // push
+        int count = 0;
+        for (Map.Entry<Stream, XxlConfDataVO> item: streamDataMap.entrySet()) {
+            if (item.getKey().send(SseEmitter.event().name(EVENT_CONF).data(item.getValue(), MediaType.APPLICATION_JSON))) {
+                count++;
+            } else {
+                remove(item.getKey());
+            }
+        }
+        return count;
+    }
+
+    /**
+     * heartbeat comment to all streams, broken stream will be removed
+     */
+    public void heartbeat() {
+        for (Stream stream: streamSet) {
+            if (!stream.send(SseEmitter.event().comment("heartbeat"))) {
+                remove(stream);
+            }
+        }
+    }
+
+    /**
+     * stream count, in progress
+     *
+     * @return
+     */
+    public int streamCount() {
+        return streamSet.size();
+    }
+
+}
@@ -7,6 +7,7 @@ public class ReturnT<T> {
 
 	public static final int SUCCESS_CODE = 200;
 	public static final int FAIL_CODE = 500;
+	public static final int SESSION_INVALID_CODE = 410;		// session not found or expired, client re-register
 
 	public static final ReturnT<String> SUCCESS = new ReturnT<String>(null);
 	public static final ReturnT<String> FAIL = new ReturnT<String>(FAIL_CODE, null);
@@ -3,6 +3,7 @@ package com.xxl.conf.admin.dao;
 import com.xxl.conf.admin.core.model.XxlConfNode;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.session.ResultHandler;
 
 import java.util.List;
 
@@ -30,5 +31,15 @@ public interface XxlConfNodeDao {
 	public XxlConfNode load(@Param("env") String env, @Param("key") String key);
 
 	public int update(XxlConfNode xxlConfNode);
+
+	public int updateVersion(@Param("env") String env, @Param("key") String key, @Param("version") long version);
+
+	/**
+	 * export conf data for sync, keyset pagination after (lastEnv, lastKey), streaming by resultHandler, without log
+	 */
+	public void exportList(@Param("lastEnv") String lastEnv,
+						   @Param("lastKey") String lastKey,
+						   @Param("pagesize") int pagesize,
+						   ResultHandler<XxlConfNode> resultHandler);
 	
 }
@@ -14,8 +14,12 @@ public interface XxlConfNodeMsgDao {
 
 	public void add(XxlConfNodeMsg xxlConfNode);
 
-	public List<XxlConfNodeMsg> findMsg(@Param("readedMsgIds") List<Integer> readedMsgIds);
+	public List<XxlConfNodeMsg> findMsg(@Param("lastMsgId") int lastMsgId, @Param("pagesize") int pagesize);
 
-	public int cleanMessage(@Param("messageTimeout") int messageTimeout);
+	public List<XxlConfNodeMsg> findMsgByIds(@Param("msgIds") List<Integer> msgIds);
+
+	public List<XxlConfNodeMsg> findMsgByChangeset(@Param("changeset") String changeset);
+
+	public int cleanMessage(@Param("messageTimeout") int messageTimeout, @Param("pagesize") int pagesize);
 
 }
@@ -4,7 +4,10 @@ package com.xxl.conf.admin.service;
 import com.xxl.conf.admin.core.model.XxlConfNode;
 import com.xxl.conf.admin.core.model.XxlConfUser;
 import com.xxl.conf.admin.core.util.ReturnT;
+import com.xxl.conf.core.model.XxlConfDataVO;
+import com.xxl.conf.core.model.XxlConfSessionVO;
 import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.List;
 import java.util.Map;
@@ -29,6 +32,8 @@ public interface IXxlConfNodeService {
 
 	public ReturnT<String> update(XxlConfNode xxlConfNode, XxlConfUser loginUser, String loginEnv);
 
+	public ReturnT<String> batchUpdate(List<XxlConfNode> xxlConfNodeList, XxlConfUser loginUser, String loginEnv);
+
     /*ReturnT<String> syncConf(String appname, XxlConfUser loginUser, String loginEnv);*/
 
 
@@ -36,6 +41,12 @@ public interface IXxlConfNodeService {
 
     public ReturnT<Map<String, String>> find(String accessToken, String env, List<String> keys);
 
-    public DeferredResult<ReturnT<String>> monitor(String accessToken, String env, List<String> keys);
+    public ReturnT<XxlConfDataVO> find(String accessToken, String env, List<String> keys, String sessionId, String digest, long revision);
+
+    public DeferredResult<ReturnT<?>> monitor(String accessToken, String env, List<String> keys, String sessionId, String digest, Long revision);
+
+    public SseEmitter stream(String accessToken, String env, List<String> keys, String sessionId, String digest, Long revision);
+
+    public ReturnT<XxlConfSessionVO> session(String accessToken, String env, List<String> keys, String sessionId, List<String> addKeys, List<String> removeKeys);
 
 }
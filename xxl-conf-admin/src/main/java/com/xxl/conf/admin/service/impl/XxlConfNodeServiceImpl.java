@@ -1,28 +1,45 @@
 package com.xxl.conf.admin.service.impl;
 
 import com.xxl.conf.admin.core.model.*;
+import com.xxl.conf.admin.core.monitor.XxlConfMonitorRegistry;
+import com.xxl.conf.admin.core.monitor.XxlConfSessionRegistry;
+import com.xxl.conf.admin.core.monitor.XxlConfStreamRegistry;
 import com.xxl.conf.admin.core.util.RegexUtil;
 import com.xxl.conf.admin.core.util.ReturnT;
 import com.xxl.conf.admin.dao.*;
 import com.xxl.conf.admin.service.IXxlConfNodeService;
+import com.xxl.conf.core.model.XxlConfDataVO;
+import com.xxl.conf.core.model.XxlConfSessionVO;
 import com.xxl.conf.core.util.PropUtil;
 import org.apache.commons.lang3.ArrayUtils;
 import org.apache.commons.lang3.StringUtils;
+import org.apache.ibatis.session.ResultContext;
+import org.apache.ibatis.session.ResultHandler;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.DisposableBean;
 import org.springframework.beans.factory.InitializingBean;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.interceptor.TransactionAspectSupport;
+import org.springframework.util.DigestUtils;
 import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import javax.annotation.Resource;
 import java.io.File;
+import java.io.UnsupportedEncodingException;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 /**
  * 配置
@@ -54,6 +71,15 @@ public class XxlConfNodeServiceImpl implements IXxlConfNodeService, Initializing
 
 	private int confBeatTime = 30;
 
+	@Value("${xxl.conf.monitor.jitter:0.2}")
+	private double monitorJitter;				// monitor timeout randomized in [beat*(1-jitter), beat]
+	@Value("${xxl.conf.monitor.spread.threshold:1000}")
+	private int monitorSpreadThreshold;			// wake-up of monitors more than threshold will be spread
+	@Value("${xxl.conf.monitor.spread.window:3000}")
+	private long monitorSpreadWindow;			// wake-up spread window, ms
+	@Value("${xxl.conf.session.ttl:600}")
+	private int sessionTtl;						// session expired when not accessed within ttl, second
+
 
 	@Override
 	public boolean ifHasProjectPermission(XxlConfUser loginUser, String loginEnv, String appname){
@@ -106,6 +132,7 @@ public class XxlConfNodeServiceImpl implements IXxlConfNodeService, Initializing
 	}
 
 	@Override
+	@Transactional
 	public ReturnT<String> delete(String key, XxlConfUser loginUser, String loginEnv) {
 		if (StringUtils.isBlank(key)) {
 			return new ReturnT<String>(500, "参数缺失");
@@ -130,18 +157,35 @@ public class XxlConfNodeServiceImpl implements IXxlConfNodeService, Initializing
 		return ReturnT.SUCCESS;
 	}
 
-	// conf broadcast msg
-	private void sendConfMsg(String env, String key, String value){
+	/**
+	 * conf broadcast msg
+	 *
+	 * @return revision, msg id is monotonically increasing and used as conf revision
+	 */
+	private int sendConfMsg(String env, String key, String value){
+		return sendConfMsg(env, key, value, null);
+	}
+
+	/**
+	 * conf broadcast msg, in change set
+	 *
+	 * @param changeset		msg in one change set will be applied together, null if single
+	 * @return revision
+	 */
+	private int sendConfMsg(String env, String key, String value, String changeset){
 
 		XxlConfNodeMsg confNodeMsg = new XxlConfNodeMsg();
 		confNodeMsg.setEnv(env);
 		confNodeMsg.setKey(key);
 		confNodeMsg.setValue(value);
+		confNodeMsg.setChangeset(changeset);
 
 		xxlConfNodeMsgDao.add(confNodeMsg);
+		return confNodeMsg.getId();
 	}
 
 	@Override
+	@Transactional
 	public ReturnT<String> add(XxlConfNode xxlConfNode, XxlConfUser loginUser, String loginEnv) {
 
 		// valid
@@ -206,13 +250,15 @@ public class XxlConfNodeServiceImpl implements IXxlConfNodeService, Initializing
 		nodeLog.setOptuser(loginUser.getUsername());
 		xxlConfNodeLogDao.add(nodeLog);
 
-		// conf msg
-		sendConfMsg(xxlConfNode.getEnv(), xxlConfNode.getKey(), xxlConfNode.getValue());
+		// conf msg, and node revision
+		int revision = sendConfMsg(xxlConfNode.getEnv(), xxlConfNode.getKey(), xxlConfNode.getValue());
+		xxlConfNodeDao.updateVersion(xxlConfNode.getEnv(), xxlConfNode.getKey(), revision);
 
 		return ReturnT.SUCCESS;
 	}
 
 	@Override
+	@Transactional
 	public ReturnT<String> update(XxlConfNode xxlConfNode, XxlConfUser loginUser, String loginEnv) {
 
 		// valid
@@ -258,8 +304,72 @@ public class XxlConfNodeServiceImpl implements IXxlConfNodeService, Initializing
 		xxlConfNodeLogDao.add(nodeLog);
 		xxlConfNodeLogDao.deleteTimeout(existNode.getEnv(), existNode.getKey(), 10);
 
-		// conf msg
-		sendConfMsg(xxlConfNode.getEnv(), xxlConfNode.getKey(), xxlConfNode.getValue());
+		// conf msg, and node revision
+		int revision = sendConfMsg(xxlConfNode.getEnv(), xxlConfNode.getKey(), xxlConfNode.getValue());
+		xxlConfNodeDao.updateVersion(xxlConfNode.getEnv(), xxlConfNode.getKey(), revision);
+
+		return ReturnT.SUCCESS;
+	}
+
+	@Override
+	@Transactional
+	public ReturnT<String> batchUpdate(List<XxlConfNode> xxlConfNodeList, XxlConfUser loginUser, String loginEnv) {
+
+		// valid all, before any change
+		if (xxlConfNodeList==null || xxlConfNodeList.size()==0) {
+			return new ReturnT<String>(500, "配置Key不可为空");
+		}
+		Map<String, XxlConfNode> existNodeMap = new LinkedHashMap<String, XxlConfNode>();
+		for (XxlConfNode xxlConfNode: xxlConfNodeList) {
+			if (StringUtils.isBlank(xxlConfNode.getKey())) {
+				return new ReturnT<String>(500, "配置Key不可为空");
+			}
+			xxlConfNode.setKey(xxlConfNode.getKey().trim());
+			if (existNodeMap.containsKey(xxlConfNode.getKey())) {
+				return new ReturnT<String>(500, "配置Key重复：" + xxlConfNode.getKey());
+			}
+
+			XxlConfNode existNode = xxlConfNodeDao.load(loginEnv, xxlConfNode.getKey());
+			if (existNode == null) {
+				return new ReturnT<String>(500, "配置Key非法：" + xxlConfNode.getKey());
+			}
+
+			// project permission
+			if (!ifHasProjectPermission(loginUser, loginEnv, existNode.getAppname())) {
+				return new ReturnT<String>(500, "您没有该项目的配置权限,请联系管理员开通");
+			}
+
+			// title keep exist if blank, value force null to ""
+			if (StringUtils.isNotBlank(xxlConfNode.getTitle())) {
+				existNode.setTitle(xxlConfNode.getTitle());
+			}
+			existNode.setValue(xxlConfNode.getValue()!=null?xxlConfNode.getValue():"");
+			existNodeMap.put(existNode.getKey(), existNode);
+		}
+
+		// update conf, one transaction and one change set
+		String changeset = UUID.randomUUID().toString().replaceAll("-", "");
+		for (XxlConfNode existNode: existNodeMap.values()) {
+			int ret = xxlConfNodeDao.update(existNode);
+			if (ret < 1) {
+				TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
+				return new ReturnT<String>(500, "配置更新失败：" + existNode.getKey());
+			}
+
+			// node log
+			XxlConfNodeLog nodeLog = new XxlConfNodeLog();
+			nodeLog.setEnv(existNode.getEnv());
+			nodeLog.setKey(existNode.getKey());
+			nodeLog.setTitle(existNode.getTitle() + "(批量发布)" );
+			nodeLog.setValue(existNode.getValue());
+			nodeLog.setOptuser(loginUser.getUsername());
+			xxlConfNodeLogDao.add(nodeLog);
+			xxlConfNodeLogDao.deleteTimeout(existNode.getEnv(), existNode.getKey(), 10);
+
+			// conf msg, and node revision
+			int revision = sendConfMsg(existNode.getEnv(), existNode.getKey(), existNode.getValue(), changeset);
+			xxlConfNodeDao.updateVersion(existNode.getEnv(), existNode.getKey(), revision);
+		}
 
 		return ReturnT.SUCCESS;
 	}
@@ -350,82 +460,276 @@ public class XxlConfNodeServiceImpl implements IXxlConfNodeService, Initializing
 
 		// result
 		Map<String, String> result = new HashMap<String, String>();
-		for (String key: keys) {
+		confDataIndexLock.readLock().lock();
+		try {
+			for (String key: keys) {
+
+				// get val
+				String value = null;
+				if (key==null || key.trim().length()<4 || key.trim().length()>100
+						|| !RegexUtil.matches(RegexUtil.abc_number_line_point_pattern, key) ) {
+					// invalid key, pass
+				} else {
+					ConfData confData = getIndexConfData(env, key);
+					value = confData!=null?confData.getValue():null;
+				}
 
-			// get val
-			String value = null;
-			if (key==null || key.trim().length()<4 || key.trim().length()>100
-					|| !RegexUtil.matches(RegexUtil.abc_number_line_point_pattern, key) ) {
-				// invalid key, pass
-			} else {
-				value = getFileConfData(env, key);
-			}
+				// parse null
+				if (value == null) {
+					value = "";
+				}
 
-			// parse null
-			if (value == null) {
-				value = "";
+				// put
+				result.put(key, value);
 			}
-
-			// put
-			result.put(key, value);
+		} finally {
+			confDataIndexLock.readLock().unlock();
 		}
 
 		return new ReturnT<Map<String, String>>(result);
 	}
 
 	@Override
-	public DeferredResult<ReturnT<String>> monitor(String accessToken, String env, List<String> keys) {
+	public ReturnT<XxlConfDataVO> find(String accessToken, String env, List<String> keys, String sessionId, String digest, long revision) {
+
+		// valid
+		if (this.accessToken!=null && this.accessToken.trim().length()>0 && !this.accessToken.equals(accessToken)) {
+			return new ReturnT<XxlConfDataVO>(ReturnT.FAIL.getCode(), "AccessToken Invalid.");
+		}
+		if (env==null || env.trim().length()==0) {
+			return new ReturnT<>(ReturnT.FAIL.getCode(), "env Invalid.");
+		}
+		ReturnT<XxlConfSessionRegistry.Session> sessionResult = parseSession(env, keys, sessionId, digest);
+		if (sessionResult.getCode() != ReturnT.SUCCESS_CODE) {
+			return new ReturnT<>(sessionResult.getCode(), sessionResult.getMsg());
+		}
+		XxlConfSessionRegistry.Session session = sessionResult.getData();
+
+		return findSince(env, session.getKeys(), session.getValidKeys(), revision);
+	}
+
+	/**
+	 * find conf changed since revision
+	 *
+	 * @param env
+	 * @param keys			keys responsed, invalid key as empty
+	 * @param validKeys		keys valid, read from index
+	 * @param revision
+	 * @return
+	 */
+	private ReturnT<XxlConfDataVO> findSince(String env, Collection<String> keys, Set<String> validKeys, long revision) {
+
+		// snapshot revision, before read; index not ready, find all and keep client revision
+		long snapshotRevision = revision;
+		if (confDataIndexReady) {
+			snapshotRevision = getSafeRevision();
+		} else {
+			revision = -1;
+		}
+
+		// result, only conf changed since revision; change set not split
+		Map<String, String> data = new HashMap<String, String>();
+		Map<String, Long> revisions = new HashMap<String, Long>();
+		confDataIndexLock.readLock().lock();
+		try {
+			for (String key: keys) {
 
-		// init
-		DeferredResult deferredResult = new DeferredResult(confBeatTime * 1000L, new ReturnT<>(ReturnT.SUCCESS_CODE, "Monitor timeout, no key updated."));
+				// get val, invalid key pass
+				ConfData confData = validKeys.contains(key)?getIndexConfData(env, key):null;
+
+				long keyRevision = confData!=null?confData.getRevision():0;
+				if (keyRevision > revision) {
+					data.put(key, (confData!=null && confData.getValue()!=null)?confData.getValue():"");
+					revisions.put(key, keyRevision);
+				}
+			}
+		} finally {
+			confDataIndexLock.readLock().unlock();
+		}
+
+		XxlConfDataVO dataVO = new XxlConfDataVO();
+		dataVO.setRevision(snapshotRevision);
+		dataVO.setData(data);
+		dataVO.setRevisions(revisions);
+		return new ReturnT<XxlConfDataVO>(dataVO);
+	}
+
+	@Override
+	public DeferredResult<ReturnT<?>> monitor(String accessToken, String env, List<String> keys, String sessionId, String digest, Long revision) {
+
+		// inline changed conf (key, value, revision) for client with revision, else updated keys only
+		boolean inline = revision != null;
+
+		// init, timeout with no key updated
+		ReturnT<?> timeoutResult;
+		if (inline) {
+			XxlConfDataVO timeoutDataVO = new XxlConfDataVO();
+			timeoutDataVO.setRevision(revision);
+			timeoutDataVO.setData(new HashMap<String, String>());
+			timeoutDataVO.setRevisions(new HashMap<String, Long>());
+			timeoutResult = new ReturnT<XxlConfDataVO>(timeoutDataVO);
+		} else {
+			timeoutResult = new ReturnT<List<String>>(new ArrayList<String>());
+		}
+		timeoutResult.setMsg("Monitor timeout, no key updated.");
+		DeferredResult<ReturnT<?>> deferredResult = new DeferredResult<ReturnT<?>>(parseMonitorTimeout(), timeoutResult);
 
 		// valid
 		if (this.accessToken!=null && this.accessToken.trim().length()>0 && !this.accessToken.equals(accessToken)) {
-			deferredResult.setResult(new ReturnT<>(ReturnT.FAIL.getCode(), "AccessToken Invalid."));
+			deferredResult.setResult(new ReturnT<String>(ReturnT.FAIL.getCode(), "AccessToken Invalid."));
 			return deferredResult;
 		}
 		if (env==null || env.trim().length()==0) {
-			deferredResult.setResult(new ReturnT<>(ReturnT.FAIL.getCode(), "env Invalid."));
+			deferredResult.setResult(new ReturnT<String>(ReturnT.FAIL.getCode(), "env Invalid."));
 			return deferredResult;
 		}
-		if (keys==null || keys.size()==0) {
-			deferredResult.setResult(new ReturnT<>(ReturnT.FAIL.getCode(), "keys Invalid."));
+		ReturnT<XxlConfSessionRegistry.Session> sessionResult = parseSession(env, keys, sessionId, digest);
+		if (sessionResult.getCode() != ReturnT.SUCCESS_CODE) {
+			deferredResult.setResult(new ReturnT<String>(sessionResult.getCode(), sessionResult.getMsg()));
 			return deferredResult;
 		}
-		/*for (String key: keys) {
-			if (key==null || key.trim().length()<4 || key.trim().length()>100) {
-				deferredResult.setResult(new ReturnT<>(ReturnT.FAIL.getCode(), "Key Invalid[4~100]"));
-				return deferredResult;
-			}
-			if (!RegexUtil.matches(RegexUtil.abc_number_line_point_pattern, key)) {
-				deferredResult.setResult(new ReturnT<>(ReturnT.FAIL.getCode(), "Key format Invalid"));
-				return deferredResult;
-			}
-		}*/
+
+		// monitor keys, invalid key pass
+		Set<String> monitorKeys = sessionResult.getData().getValidKeys();
 
 		// monitor by client
-		for (String key: keys) {
+		XxlConfMonitorRegistry.Monitor monitor = new XxlConfMonitorRegistry.Monitor(env, monitorKeys, deferredResult, inline);
+		monitorRegistry.register(monitor);
+
+		// changed since client revision, response immediately (check after watch, avoid missing update);
+		// index not ready, hold until update or timeout: no real snapshot revision, client would retry at once
+		if (revision!=null && confDataIndexReady) {
+			ReturnT<XxlConfDataVO> findResult = findSince(env, monitorKeys, monitorKeys, revision);
+			XxlConfDataVO dataVO = findResult.getData();
+			if (dataVO!=null && dataVO.getData().size() > 0) {
+				ReturnT<?> updateResult = inline
+						?findResult
+						:new ReturnT<List<String>>(new ArrayList<String>(dataVO.getData().keySet()));
+				updateResult.setMsg("Monitor key update.");
+				monitor.complete(updateResult);
+			}
+		}
 
+		return deferredResult;
+	}
 
-			// invalid key, pass
-			if (key==null || key.trim().length()<4 || key.trim().length()>100
-					|| !RegexUtil.matches(RegexUtil.abc_number_line_point_pattern, key) ) {
-				continue;
-			}
+	/**
+	 * monitor timeout with random jitter, clients reconnect at different time
+	 *
+	 * @return ms
+	 */
+	private long parseMonitorTimeout(){
+		long timeout = confBeatTime * 1000L;
+		if (monitorJitter > 0) {
+			long jitter = (long) (timeout * Math.min(monitorJitter, 1));
+			timeout -= ThreadLocalRandom.current().nextLong(jitter + 1);
+		}
+		return Math.max(timeout, 1000);
+	}
+
+	private static final int STREAM_TIMEOUT = 5 * 60;			// stream timeout, client reconnect with revision; second
+	private static final int STREAM_HEARTBEAT = 10;				// stream heartbeat interval, second
+
+	@Override
+	public SseEmitter stream(String accessToken, String env, List<String> keys, String sessionId, String digest, Long revision) {
+		SseEmitter emitter = new SseEmitter(STREAM_TIMEOUT * 1000L);
+
+		// valid
+		ReturnT<XxlConfSessionRegistry.Session> sessionResult = null;
+		if (this.accessToken!=null && this.accessToken.trim().length()>0 && !this.accessToken.equals(accessToken)) {
+			sessionResult = new ReturnT<>(ReturnT.FAIL.getCode(), "AccessToken Invalid.");
+		} else if (env==null || env.trim().length()==0) {
+			sessionResult = new ReturnT<>(ReturnT.FAIL.getCode(), "env Invalid.");
+		} else {
+			sessionResult = parseSession(env, keys, sessionId, digest);
+		}
+		if (sessionResult.getCode() != ReturnT.SUCCESS_CODE) {
+			XxlConfStreamRegistry.Stream stream = new XxlConfStreamRegistry.Stream(env, new HashSet<String>(), emitter);
+			stream.send(SseEmitter.event().name(XxlConfStreamRegistry.EVENT_ERROR).data(new ReturnT<String>(sessionResult.getCode(), sessionResult.getMsg()), MediaType.APPLICATION_JSON));
+			stream.complete();
+			return emitter;
+		}
+
+		// stream keys, invalid key pass
+		Set<String> streamKeys = sessionResult.getData().getValidKeys();
 
-			// monitor each key
-			String fileName = parseConfDataFileName(env, key);
+		// stream by client
+		XxlConfStreamRegistry.Stream stream = new XxlConfStreamRegistry.Stream(env, streamKeys, emitter);
+		streamRegistry.register(stream);
 
-			List<DeferredResult> deferredResultList = confDeferredResultMap.get(fileName);
-			if (deferredResultList == null) {
-				deferredResultList = new ArrayList<>();
-				confDeferredResultMap.put(fileName, deferredResultList);
+		// changed since client revision, send first (after watch, and hold stream, avoid missing or reorder update)
+		synchronized (stream) {
+			ReturnT<XxlConfDataVO> findResult = findSince(env, streamKeys, streamKeys, revision!=null?revision:-1);
+			if (findResult.getCode() == ReturnT.SUCCESS_CODE) {
+				stream.send(SseEmitter.event().name(XxlConfStreamRegistry.EVENT_CONF).data(findResult.getData(), MediaType.APPLICATION_JSON));
 			}
+		}
+
+		return emitter;
+	}
 
-			deferredResultList.add(deferredResult);
+	// ---------------------- session ----------------------
+
+	private XxlConfSessionRegistry sessionRegistry = new XxlConfSessionRegistry(new XxlConfSessionRegistry.KeyValidator() {
+		@Override
+		public boolean valid(String key) {
+			return key!=null && key.trim().length()>=4 && key.trim().length()<=100
+					&& RegexUtil.matches(RegexUtil.abc_number_line_point_pattern, key);
 		}
+	});
 
-		return deferredResult;
+	@Override
+	public ReturnT<XxlConfSessionVO> session(String accessToken, String env, List<String> keys, String sessionId, List<String> addKeys, List<String> removeKeys) {
+
+		// valid
+		if (this.accessToken!=null && this.accessToken.trim().length()>0 && !this.accessToken.equals(accessToken)) {
+			return new ReturnT<XxlConfSessionVO>(ReturnT.FAIL.getCode(), "AccessToken Invalid.");
+		}
+		if (env==null || env.trim().length()==0) {
+			return new ReturnT<>(ReturnT.FAIL.getCode(), "env Invalid.");
+		}
+
+		// update, or register
+		XxlConfSessionRegistry.Session session;
+		if (sessionId!=null && sessionId.trim().length()>0) {
+			session = sessionRegistry.update(sessionId, env, addKeys, removeKeys);
+			if (session == null) {
+				return new ReturnT<>(ReturnT.SESSION_INVALID_CODE, "session Invalid.");
+			}
+		} else {
+			if (keys==null || keys.size()==0) {
+				return new ReturnT<>(ReturnT.FAIL.getCode(), "keys Invalid.");
+			}
+			session = sessionRegistry.register(env, keys);
+		}
+
+		XxlConfSessionVO sessionVO = new XxlConfSessionVO();
+		sessionVO.setSessionId(session.getSessionId());
+		sessionVO.setDigest(session.getDigest());
+		return new ReturnT<XxlConfSessionVO>(sessionVO);
+	}
+
+	/**
+	 * keys of request, or of session when keys empty
+	 *
+	 * @param env
+	 * @param keys
+	 * @param sessionId
+	 * @param digest
+	 * @return
+	 */
+	private ReturnT<XxlConfSessionRegistry.Session> parseSession(String env, List<String> keys, String sessionId, String digest){
+		if (keys!=null && keys.size()>0) {
+			return new ReturnT<XxlConfSessionRegistry.Session>(sessionRegistry.parse(env, keys));
+		}
+		if (sessionId!=null && sessionId.trim().length()>0) {
+			XxlConfSessionRegistry.Session session = sessionRegistry.get(sessionId, env, digest);
+			if (session == null) {
+				return new ReturnT<>(ReturnT.SESSION_INVALID_CODE, "session Invalid.");
+			}
+			return new ReturnT<XxlConfSessionRegistry.Session>(session);
+		}
+		return new ReturnT<>(ReturnT.FAIL.getCode(), "keys Invalid.");
 	}
 
 
@@ -433,6 +737,7 @@ public class XxlConfNodeServiceImpl implements IXxlConfNodeService, Initializing
 
 	@Override
 	public void afterPropertiesSet() throws Exception {
+		monitorRegistry.setSpread(monitorSpreadThreshold, monitorSpreadWindow);
 		startThead();
 	}
 
@@ -447,9 +752,13 @@ public class XxlConfNodeServiceImpl implements IXxlConfNodeService, Initializing
 	private ExecutorService executorService = Executors.newCachedThreadPool();
 	private volatile boolean executorStoped = false;
 
-	private volatile List<Integer> readedMessageIds = Collections.synchronizedList(new ArrayList<Integer>());
+	private static final int MSG_BATCH_SIZE = 1000;		// msg fetch/clean batch size
+	private volatile int msgGapMinId = -1;					// min msg id not yet read (in-flight transaction), -1 if none
+	private volatile int msgReadCursor = -1;				// max msg id read in order
+	private volatile int msgAheadMaxId = -1;				// max msg id applied ahead of cursor, by change set
 
-	private Map<String, List<DeferredResult>> confDeferredResultMap = new ConcurrentHashMap<>();
+	private XxlConfMonitorRegistry monitorRegistry = new XxlConfMonitorRegistry();
+	private XxlConfStreamRegistry streamRegistry = new XxlConfStreamRegistry();
 
 	public void startThead() throws Exception {
 
@@ -459,32 +768,120 @@ public class XxlConfNodeServiceImpl implements IXxlConfNodeService, Initializing
 		executorService.execute(new Runnable() {
 			@Override
 			public void run() {
+				int msgCursor = -1;											// max msg id read, high-watermark
+				Map<Integer, Long> msgGaps = new LinkedHashMap<>();			// msg id skipped by cursor -> found time, committed later or rolled back
 				while (!executorStoped) {
+					boolean msgDraining = false;
 					try {
-						// new message, filter readed
-						List<XxlConfNodeMsg> messageList = xxlConfNodeMsgDao.findMsg(readedMessageIds);
+						List<XxlConfNodeMsg> applyMessageList = new ArrayList<>();
+
+						// new message, after cursor
+						List<XxlConfNodeMsg> messageList = xxlConfNodeMsgDao.findMsg(Math.max(msgCursor, 0), MSG_BATCH_SIZE);
 						if (messageList!=null && messageList.size()>0) {
 							for (XxlConfNodeMsg message: messageList) {
-								readedMessageIds.add(message.getId());
 
+								// collect gap
+								if (msgCursor>=0 && message.getId()-msgCursor-1<=MSG_BATCH_SIZE) {
+									for (int gapId = msgCursor+1; gapId < message.getId(); gapId++) {
+										msgGaps.put(gapId, System.currentTimeMillis());
+									}
+								}
+								msgCursor = message.getId();
+								applyMessageList.add(message);
+							}
+							msgDraining = messageList.size() >= MSG_BATCH_SIZE;
+						}
+
+						// lagging message, in gap
+						if (msgGaps.size() > 0) {
+							List<XxlConfNodeMsg> gapMessageList = xxlConfNodeMsgDao.findMsgByIds(new ArrayList<Integer>(msgGaps.keySet()));
+							if (gapMessageList!=null && gapMessageList.size()>0) {
+								for (XxlConfNodeMsg message: gapMessageList) {
+									msgGaps.remove(message.getId());
+									applyMessageList.add(message);
+								}
+							}
 
-								// sync file
-								setFileConfData(message.getEnv(), message.getKey(), message.getValue());
+							// gap timeout, rolled back
+							Iterator<Map.Entry<Integer, Long>> gapIt = msgGaps.entrySet().iterator();
+							while (gapIt.hasNext()) {
+								if (System.currentTimeMillis() - gapIt.next().getValue() > confBeatTime * 1000L) {
+									gapIt.remove();
+								}
 							}
 						}
+						msgGapMinId = msgGaps.size()>0?msgGaps.keySet().iterator().next():-1;
+						msgReadCursor = msgCursor;
+
+						// sync index + file
+						applyConfMsg(applyMessageList, msgCursor);
+					} catch (Exception e) {
+						if (!executorStoped) {
+							logger.error(e.getMessage(), e);
+						}
+					}
+					try {
+						if (!msgDraining) {
+							TimeUnit.SECONDS.sleep(1);
+						}
+					} catch (Exception e) {
+						if (!executorStoped) {
+							logger.error(e.getMessage(), e);
+						}
+					}
+				}
+			}
+		});
 
-						// clean old message;
-						if ( (System.currentTimeMillis()/1000) % confBeatTime ==0) {
-							xxlConfNodeMsgDao.cleanMessage(confBeatTime);
-							readedMessageIds.clear();
+
+		/**
+		 * stream heartbeat, remove broken stream
+		 */
+		executorService.execute(new Runnable() {
+			@Override
+			public void run() {
+				while (!executorStoped) {
+					try {
+						streamRegistry.heartbeat();
+					} catch (Exception e) {
+						if (!executorStoped) {
+							logger.error(e.getMessage(), e);
 						}
+					}
+					try {
+						TimeUnit.SECONDS.sleep(STREAM_HEARTBEAT);
+					} catch (Exception e) {
+						if (!executorStoped) {
+							logger.error(e.getMessage(), e);
+						}
+					}
+				}
+			}
+		});
+
+
+		/**
+		 * clean old conf-data msg, in batch; and session expired
+		 */
+		executorService.execute(new Runnable() {
+			@Override
+			public void run() {
+				while (!executorStoped) {
+					try {
+						int ret;
+						do {
+							ret = xxlConfNodeMsgDao.cleanMessage(confBeatTime, MSG_BATCH_SIZE);
+						} while (ret >= MSG_BATCH_SIZE && !executorStoped);
+
+						// clean session expired
+						sessionRegistry.clean(sessionTtl * 1000L);
 					} catch (Exception e) {
 						if (!executorStoped) {
 							logger.error(e.getMessage(), e);
 						}
 					}
 					try {
-						TimeUnit.SECONDS.sleep(1);
+						TimeUnit.SECONDS.sleep(confBeatTime);
 					} catch (Exception e) {
 						if (!executorStoped) {
 							logger.error(e.getMessage(), e);
@@ -519,32 +916,43 @@ public class XxlConfNodeServiceImpl implements IXxlConfNodeService, Initializing
 
 					try {
 
-						// sync registry-data, db + file
-						int offset = 0;
+						// sync registry-data, db + file; keyset pagination on (env, key), streaming export
 						int pagesize = 1000;
-						List<String> confDataFileList = new ArrayList<>();
+						final Set<String> confDataFileSet = new HashSet<>();
+						long syncStartRevision = confDataRevision.get();
 
-						List<XxlConfNode> confNodeList = xxlConfNodeDao.pageList(offset, pagesize, null, null, null);
-						while (confNodeList!=null && confNodeList.size()>0) {
+						final XxlConfNode[] lastConfNode = new XxlConfNode[1];
+						final int[] pageCount = new int[1];
+						do {
+							String lastEnv = lastConfNode[0]!=null?lastConfNode[0].getEnv():null;
+							String lastKey = lastConfNode[0]!=null?lastConfNode[0].getKey():null;
+							pageCount[0] = 0;
 
-							for (XxlConfNode confNoteItem: confNodeList) {
+							xxlConfNodeDao.exportList(lastEnv, lastKey, pagesize, new ResultHandler<XxlConfNode>() {
+								@Override
+								public void handleResult(ResultContext<? extends XxlConfNode> resultContext) {
+									XxlConfNode confNoteItem = resultContext.getResultObject();
 
-								// sync file
-								String confDataFile = setFileConfData(confNoteItem.getEnv(), confNoteItem.getKey(), confNoteItem.getValue());
-
-								// collect confDataFile
-								confDataFileList.add(confDataFile);
-							}
+									// sync file
+									String confDataFile = setFileConfData(confNoteItem.getEnv(), confNoteItem.getKey(), confNoteItem.getValue(), confNoteItem.getVersion());
 
+									// collect confDataFile
+									confDataFileSet.add(confDataFile);
 
-							offset += 1000;
-							confNodeList = xxlConfNodeDao.pageList(offset, pagesize, null, null, null);
-						}
+									lastConfNode[0] = confNoteItem;
+									pageCount[0]++;
+								}
+							});
+						} while (pageCount[0] >= pagesize && !executorStoped);
 
 						// clean old registry-data file
-						cleanFileConfData(confDataFileList);
+						cleanFileConfData(confDataFileSet);
+
+						// clean old index-data, index ready
+						cleanIndexConfData(confDataFileSet, syncStartRevision);
+						confDataIndexReady = true;
 
-                        logger.debug(">>>>>>>>>>> xxl-conf, sync totel conf data success, sync conf count = {}", confDataFileList.size());
+                        logger.debug(">>>>>>>>>>> xxl-conf, sync totel conf data success, sync conf count = {}", confDataFileSet.size());
 					} catch (Exception e) {
 						if (!executorStoped) {
 							logger.error(e.getMessage(), e);
@@ -568,6 +976,151 @@ public class XxlConfNodeServiceImpl implements IXxlConfNodeService, Initializing
 	private void stopThread(){
 		executorStoped = true;
 		executorService.shutdownNow();
+		monitorRegistry.stop();
+	}
+
+
+	// ---------------------- index opt ----------------------
+
+	/**
+	 * conf data index, env -> (key -> conf data)
+	 *
+	 * kept current by the msg-sync and full-sync threads, so "find" is answered from memory; the file tree stays as durable backup;
+	 * deleted conf is kept as tombstone (null value), so clients can see the deletion by revision; dropped after msg retention;
+	 */
+	private ConcurrentMap<String, ConcurrentMap<String, ConfData>> confDataIndex = new ConcurrentHashMap<>();
+	private volatile boolean confDataIndexReady = false;		// true after the first full sync, before that fall back to file
+	private AtomicLong confDataRevision = new AtomicLong(0);	// max revision applied to index
+	private ReentrantReadWriteLock confDataIndexLock = new ReentrantReadWriteLock();	// change set applied to index atomically, for find
+
+	/**
+	 * index conf data
+	 */
+	public static class ConfData {
+		private final String value;
+		private final long revision;
+		private final long updateTime;
+
+		public ConfData(String value, long revision) {
+			this.value = value;
+			this.revision = revision;
+			this.updateTime = System.currentTimeMillis();
+		}
+
+		public String getValue() {
+			return value;
+		}
+
+		public long getRevision() {
+			return revision;
+		}
+
+		public long getUpdateTime() {
+			return updateTime;
+		}
+	}
+
+	// get
+	private ConfData getIndexConfData(String env, String key){
+		ConcurrentMap<String, ConfData> envIndex = confDataIndex.get(env);
+		ConfData confData = envIndex!=null?envIndex.get(key):null;
+		if (confData != null) {
+			return confData;
+		}
+
+		// index not ready, fall back to file
+		if (!confDataIndexReady) {
+			String value = getFileConfData(env, key);
+			return value!=null?new ConfData(value, 0):null;
+		}
+		return null;
+	}
+
+	// set, only newer or equal revision will be applied; return false if stale
+	private boolean setIndexConfData(String env, String key, String value, long revision){
+		ConcurrentMap<String, ConfData> envIndex = confDataIndex.get(env);
+		if (envIndex == null) {
+			confDataIndex.putIfAbsent(env, new ConcurrentHashMap<String, ConfData>());
+			envIndex = confDataIndex.get(env);
+		}
+
+		ConfData newData = new ConfData(value, revision);
+		while (true) {
+			ConfData existData = envIndex.get(key);
+			if (existData == null) {
+				if (envIndex.putIfAbsent(key, newData) == null) {
+					break;
+				}
+			} else {
+				if (existData.getRevision() > revision) {
+					return false;
+				}
+				if (existData.getRevision()==revision && Objects.equals(existData.getValue(), value)) {
+					return true;
+				}
+				if (envIndex.replace(key, existData, newData)) {
+					break;
+				}
+			}
+		}
+
+		// max revision
+		long maxRevision;
+		while ((maxRevision = confDataRevision.get()) < revision) {
+			if (confDataRevision.compareAndSet(maxRevision, revision)) {
+				break;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * safe revision, all conf change not after it have been applied to index
+	 *
+	 * msg after an unread gap (in-flight transaction) may be applied first, so hold back until the gap is read or timeout;
+	 * change set msg ahead of cursor is the same, hold back until the cursor catch up
+	 */
+	private long getSafeRevision(){
+		long revision = confDataRevision.get();
+		int gapMinId = msgGapMinId;
+		if (gapMinId > 0 && gapMinId - 1 < revision) {
+			revision = gapMinId - 1;
+		}
+		int readCursor = msgReadCursor;
+		if (msgAheadMaxId > readCursor && readCursor < revision) {
+			revision = readCursor;
+		}
+		return revision;
+	}
+
+	/**
+	 * clean index: conf deleted but delete msg never read (msg cleaned, or db edited), deleted by a new msg;
+	 * the msg id is a real revision after the safe revision, so clients at any revision see the delete, and it is brocast as usual;
+	 * entry changed after sync start will be kept; tombstone older than msg retention is dropped
+	 */
+	private void cleanIndexConfData(Set<String> confDataFileSet, long syncStartRevision){
+		long tombstoneExpireTime = System.currentTimeMillis() - confBeatTime * 1000L;
+		for (Map.Entry<String, ConcurrentMap<String, ConfData>> envIndex: confDataIndex.entrySet()) {
+			for (Map.Entry<String, ConfData> confDataItem: envIndex.getValue().entrySet()) {
+				ConfData confData = confDataItem.getValue();
+
+				// tombstone, drop after msg retention
+				if (confData.getValue() == null) {
+					if (confData.getUpdateTime() < tombstoneExpireTime) {
+						envIndex.getValue().remove(confDataItem.getKey(), confData);
+					}
+					continue;
+				}
+
+				// deleted, check db again (may be added after export)
+				if (confData.getRevision() <= syncStartRevision
+						&& !confDataFileSet.contains(new File(parseConfDataFileName(envIndex.getKey(), confDataItem.getKey())).getPath())
+						&& xxlConfNodeDao.load(envIndex.getKey(), confDataItem.getKey()) == null) {
+					sendConfMsg(envIndex.getKey(), confDataItem.getKey(), null);
+					logger.info(">>>>>>>>>>> xxl-conf, cleanIndexConfData, deleted by msg, env={}, key={}", envIndex.getKey(), confDataItem.getKey());
+				}
+			}
+		}
 	}
 
 
@@ -596,19 +1149,149 @@ public class XxlConfNodeServiceImpl implements IXxlConfNodeService, Initializing
 		return fileName;
 	}
 
+	/**
+	 * conf data file manifest, file path -> value hash
+	 *
+	 * mirror of the file tree content, unchanged conf data will be skipped without disk io
+	 */
+	private ConcurrentMap<String, String> confDataFileManifest = new ConcurrentHashMap<>();
+
+	private static final String DELETED_VALUE_HASH = "deleted";
+
+	private String parseValueHash(String value){
+		if (value == null) {
+			return DELETED_VALUE_HASH;
+		}
+		try {
+			return DigestUtils.md5DigestAsHex(value.getBytes("UTF-8"));
+		} catch (UnsupportedEncodingException e) {
+			throw new RuntimeException(e);
+		}
+	}
+
+	/**
+	 * apply conf msg, change set is completed and applied to index together, then sync file and brocast
+	 *
+	 * @param messageList
+	 * @param msgCursor
+	 */
+	private void applyConfMsg(List<XxlConfNodeMsg> messageList, int msgCursor){
+		if (messageList.size() == 0) {
+			return;
+		}
+
+		// complete change set, committed in one transaction, all msg visible together
+		Map<Integer, XxlConfNodeMsg> messageMap = new TreeMap<>();
+		Set<String> changesetSet = new HashSet<>();
+		for (XxlConfNodeMsg message: messageList) {
+			messageMap.put(message.getId(), message);
+			if (message.getChangeset()!=null && changesetSet.add(message.getChangeset())) {
+				List<XxlConfNodeMsg> changesetMessageList = xxlConfNodeMsgDao.findMsgByChangeset(message.getChangeset());
+				if (changesetMessageList != null) {
+					for (XxlConfNodeMsg changesetMessage: changesetMessageList) {
+						messageMap.put(changesetMessage.getId(), changesetMessage);
+
+						// ahead of cursor, hold back safe revision until read in order
+						if (changesetMessage.getId() > msgCursor && changesetMessage.getId() > msgAheadMaxId) {
+							msgAheadMaxId = changesetMessage.getId();
+						}
+					}
+				}
+			}
+		}
+
+		// sync index, stale data pass
+		List<XxlConfNodeMsg> appliedMessageList = new ArrayList<>();
+		confDataIndexLock.writeLock().lock();
+		try {
+			for (XxlConfNodeMsg message: messageMap.values()) {
+				if (setIndexConfData(message.getEnv(), message.getKey(), message.getValue(), message.getId())) {
+					appliedMessageList.add(message);
+				}
+			}
+		} finally {
+			confDataIndexLock.writeLock().unlock();
+		}
+
+		// sync file, changed conf grouped by env
+		Map<String, Map<String, String>> envDataMap = new LinkedHashMap<>();
+		Map<String, Map<String, Long>> envRevisionMap = new HashMap<>();
+		for (XxlConfNodeMsg message: appliedMessageList) {
+			if (!writeFileConfData(new File(parseConfDataFileName(message.getEnv(), message.getKey())).getPath(), message.getValue())) {
+				continue;
+			}
+			if (!envDataMap.containsKey(message.getEnv())) {
+				envDataMap.put(message.getEnv(), new LinkedHashMap<String, String>());
+				envRevisionMap.put(message.getEnv(), new HashMap<String, Long>());
+			}
+			envDataMap.get(message.getEnv()).put(message.getKey(), message.getValue());
+			envRevisionMap.get(message.getEnv()).put(message.getKey(), (long) message.getId());
+		}
+
+		// brocast, after all applied
+		for (Map.Entry<String, Map<String, String>> item: envDataMap.entrySet()) {
+			brocastConfData(item.getKey(), item.getValue(), envRevisionMap.get(item.getKey()));
+		}
+	}
+
 	// set
-	private String setFileConfData(String env, String key, String value){
+	private String setFileConfData(String env, String key, String value, long revision){
 
 		// fileName
-		String confFileName = parseConfDataFileName(env, key);
+		String confFileName = new File(parseConfDataFileName(env, key)).getPath();
 
-		// valid repeat update
-		Properties existProp = PropUtil.loadFileProp(confFileName);
-		if (existProp != null
-				&& value!=null
-				&& value.equals(existProp.getProperty("value"))
-				) {
-			return new File(confFileName).getPath();
+		// sync index, stale data pass
+		if (!setIndexConfData(env, key, value, revision)) {
+			return confFileName;
+		}
+
+		// sync file, and brocast
+		if (writeFileConfData(confFileName, value)) {
+			brocastConfData(env, Collections.singletonMap(key, value), Collections.singletonMap(key, revision));
+		}
+		return confFileName;
+	}
+
+	/**
+	 * brocast conf change: complete monitor and push to stream, one result with all its changed keys
+	 *
+	 * @param env
+	 * @param data			key -> value, null if deleted
+	 * @param revisions
+	 */
+	private void brocastConfData(String env, Map<String, String> data, Map<String, Long> revisions){
+
+		// deleted as ""
+		Map<String, String> brocastData = new HashMap<>();
+		for (Map.Entry<String, String> item: data.entrySet()) {
+			brocastData.put(item.getKey(), item.getValue()!=null?item.getValue():"");
+		}
+		long revision = getSafeRevision();
+
+		// monitor client, inline changed conf
+		monitorRegistry.notify(env, brocastData, revisions, revision);
+
+		// stream client
+		if (streamRegistry.streamCount() > 0) {
+			streamRegistry.push(env, brocastData, revisions, revision);
+		}
+	}
+
+	// write, return false if unchanged
+	private boolean writeFileConfData(String confFileName, String value){
+
+		// valid repeat update, by manifest; read disk only when unknown
+		String valueHash = parseValueHash(value);
+		String existHash = confDataFileManifest.get(confFileName);
+		if (existHash == null) {
+			Properties existProp = PropUtil.loadFileProp(confFileName);
+			if (existProp != null) {
+				existHash = parseValueHash(existProp.getProperty("value"));
+			}
+		}
+		if (valueHash.equals(existHash)) {
+			confDataFileManifest.put(confFileName, existHash);
+			return false;
 		}
 
 		// write
@@ -619,47 +1302,42 @@ public class XxlConfNodeServiceImpl implements IXxlConfNodeService, Initializing
 			prop.setProperty("value", value);
 		}
 
-		PropUtil.writeFileProp(prop, confFileName);
-		logger.info(">>>>>>>>>>> xxl-conf, setFileConfData: confFileName={}, value={}", confFileName, value);
-
-		// brocast monitor client
-		List<DeferredResult> deferredResultList = confDeferredResultMap.get(confFileName);
-		if (deferredResultList != null) {
-			confDeferredResultMap.remove(confFileName);
-			for (DeferredResult deferredResult: deferredResultList) {
-				deferredResult.setResult(new ReturnT<>(ReturnT.SUCCESS_CODE, "Monitor key update."));
-			}
+		if (PropUtil.writeFileProp(prop, confFileName)) {
+			confDataFileManifest.put(confFileName, valueHash);
+		} else {
+			confDataFileManifest.remove(confFileName);
 		}
-
-		return new File(confFileName).getPath();
+		logger.info(">>>>>>>>>>> xxl-conf, setFileConfData: confFileName={}, value={}", confFileName, value);
+		return true;
 	}
 
-	// clean
-	public void cleanFileConfData(List<String> confDataFileList){
-		filterChildPath(new File(confDataFilePath), confDataFileList);
+	// clean, one directory walk
+	public void cleanFileConfData(Set<String> confDataFileSet){
+		filterChildPath(new File(confDataFilePath), confDataFileSet);
 	}
 
-	public void filterChildPath(File parentPath, final List<String> confDataFileList){
-		if (!parentPath.exists() || parentPath.list()==null || parentPath.list().length==0) {
+	public void filterChildPath(File parentPath, final Set<String> confDataFileSet){
+		File[] childFileList = parentPath.listFiles();
+		if (childFileList==null || childFileList.length==0) {
 			return;
 		}
-		File[] childFileList = parentPath.listFiles();
 		for (File childFile: childFileList) {
-			if (childFile.isFile() && !confDataFileList.contains(childFile.getPath())) {
-				childFile.delete();
-
-				logger.info(">>>>>>>>>>> xxl-conf, cleanFileConfData, ConfDataFile={}", childFile.getPath());
-			}
 			if (childFile.isDirectory()) {
-				if (parentPath.listFiles()!=null && parentPath.listFiles().length>0) {
-					filterChildPath(childFile, confDataFileList);
-				} else {
+				filterChildPath(childFile, confDataFileSet);
+
+				// env or directory left empty, delete after its files (root kept)
+				String[] remainList = childFile.list();
+				if (remainList!=null && remainList.length==0) {
 					childFile.delete();
+					logger.info(">>>>>>>>>>> xxl-conf, cleanFileConfData, ConfDataDir={}", childFile.getPath());
 				}
+			} else if (!confDataFileSet.contains(childFile.getPath())) {
+				childFile.delete();
+				confDataFileManifest.remove(childFile.getPath());
 
+				logger.info(">>>>>>>>>>> xxl-conf, cleanFileConfData, ConfDataFile={}", childFile.getPath());
 			}
 		}
-
 	}
 
 }
@@ -346,6 +346,90 @@ $(function(){
 		$("#updateModal .form")[0].reset()
 	});
 
+	// 批量发布
+	function batchItemHtml(key, value) {
+		return '<div class="form-group batch-item">' +
+			'	<div class="col-sm-4"><input type="text" class="form-control" name="key" placeholder="请输入配置Key" maxlength="100" ></div>' +
+			'	<div class="col-sm-7"><textarea class="textarea" name="value" maxlength="2000" placeholder="请输入配置Value" style="width: 100%; height: 34px; font-size: 14px; line-height: 18px; border: 1px solid #dddddd; padding: 6px;"></textarea></div>' +
+			'	<div class="col-sm-1"><button type="button" class="btn btn-danger btn-xs removeItem" >移除</button></div>' +
+			'</div>';
+	}
+	function addBatchItem(key, value) {
+		var item = $(batchItemHtml());
+		item.find("input[name='key']").val(key || '');
+		item.find("textarea[name='value']").val(value || '');
+		$("#batchUpdateModal .batch-items").append(item);
+	}
+	$("#batchUpdate").click(function(){
+		if ($("#batchUpdateModal .batch-item").length == 0) {
+			addBatchItem();
+		}
+		$('#batchUpdateModal').modal('show');
+	});
+	$("#batchUpdateModal").on('click', '.addItem',function() {
+		addBatchItem();
+	});
+	$("#batchUpdateModal").on('click', '.removeItem',function() {
+		$(this).closest('.batch-item').remove();
+	});
+	$("#batchUpdateModal").on('blur', "input[name='key']",function() {
+		// fill current value, if listed
+		var row = confData[$(this).val()];
+		var valueItem = $(this).closest('.batch-item').find("textarea[name='value']");
+		if (row && !valueItem.val()) {
+			valueItem.val( row.value );
+		}
+	});
+	$("#batchUpdateModal .form").submit(function(){
+		var items = $("#batchUpdateModal .batch-item");
+		if (items.length == 0) {
+			layer.open({
+				icon: '2',
+				content: '请输入配置Key'
+			});
+			return false;
+		}
+
+		var params = [];
+		var keys = [];
+		items.each(function () {
+			var key = $.trim($(this).find("input[name='key']").val());
+			keys.push(key);
+			params.push({ name: 'key', value: key });
+			params.push({ name: 'value', value: $(this).find("textarea[name='value']").val() });
+		});
+
+		layer.confirm( "确定要批量发布配置：" + keys.join(", ") , {
+			icon: 3,
+			title: '系统提示' ,
+			btn: [ '确定', '取消' ]
+		}, function(index){
+			layer.close(index);
+
+			$.post(base_url + "/conf/batchUpdate", $.param(params), function(data, status) {
+				if (data.code == 200) {
+					layer.open({
+						icon: '1',
+						content: '发布成功' ,
+						end: function(layero, index){
+							confTable.fnDraw();
+							$('#batchUpdateModal').modal('hide');
+						}
+					});
+				} else {
+					layer.open({
+						icon: '2',
+						content: (data.msg||'发布失败')
+					});
+				}
+			});
+		});
+		return false;
+	});
+	$("#batchUpdateModal").on('hide.bs.modal', function () {
+		$("#batchUpdateModal .batch-items").html('');
+	});
+
 	// 全量同步
     /*$('#syncConf').click(function () {
         layer.confirm( "确定要进行全量同步操作，将会检测该项目下的全部未同步配置项，使用DB中配置数据覆盖ZK中配置数据并推送更新？" , {
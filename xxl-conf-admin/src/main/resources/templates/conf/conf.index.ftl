@@ -55,6 +55,9 @@
                     <div class="col-xs-2">
                         <button class="btn btn-block btn-success" id="add" type="button">新增配置</button>
                     </div>
+                    <div class="col-xs-2">
+                        <button class="btn btn-block btn-warning" id="batchUpdate" type="button">批量发布</button>
+                    </div>
                     <#--<div class="col-xs-2">
                         <button class="btn btn-block btn-nomal" id="syncConf">全量同步</button>
                     </div>-->
@@ -178,6 +181,35 @@
 		</div>
 	</div>
 
+	<!-- 批量发布.模态框 -->
+	<div class="modal fade" id="batchUpdateModal" tabindex="-1" role="dialog"  aria-hidden="true">
+		<div class="modal-dialog modal-lg">
+			<div class="modal-content">
+				<div class="modal-header">
+	            	<h4 class="modal-title" >批量发布（同一事务提交，客户端同一次刷新生效）</h4>
+	         	</div>
+	         	<div class="modal-body">
+					<form class="form-horizontal form" role="form" >
+                        <div class="form-group">
+                            <label for="lastname" class="col-sm-2 control-label">环境</label>
+                            <div class="col-sm-10">
+                                <input type="text" class="form-control" name="env" value="${XXL_CONF_CURRENT_ENV}" readonly >
+                            </div>
+                        </div>
+						<div class="batch-items" ></div>
+						<div class="form-group">
+							<div class="col-sm-offset-2 col-sm-10">
+								<button type="button" class="btn btn-default addItem" >新增一行</button>
+								<button type="submit" class="btn btn-primary"  >发布</button>
+								<button type="button" class="btn btn-default" data-dismiss="modal">取消</button>
+							</div>
+						</div>
+					</form>
+	         	</div>
+			</div>
+		</div>
+	</div>
+
 	<@netCommon.commonScript/>
 	<script>
         var hasPermission = ${ifHasProjectPermission?string};
@@ -0,0 +1,207 @@
+package com.xxl.conf.admin.test.monitor;
+
+import com.xxl.conf.admin.core.monitor.XxlConfMonitorRegistry;
+import com.xxl.conf.admin.core.util.ReturnT;
+import com.xxl.conf.core.model.XxlConfDataVO;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * XxlConfMonitorRegistry: completion exactly once, removal on timeout/completion, result of own keys, spread wake-up
+ */
+public class XxlConfMonitorRegistryTest {
+
+    /**
+     * deferred result not handled by container, timeout/completion fired by test
+     */
+    private static class TestDeferredResult extends DeferredResult<ReturnT<?>> {
+        private Runnable timeoutCallback;
+        private Runnable completionCallback;
+
+        @Override
+        public void onTimeout(Runnable callback) {
+            super.onTimeout(callback);
+            this.timeoutCallback = callback;
+        }
+
+        @Override
+        public void onCompletion(Runnable callback) {
+            super.onCompletion(callback);
+            this.completionCallback = callback;
+        }
+    }
+
+    private XxlConfMonitorRegistry registry;
+
+    @Before
+    public void setUp() {
+        registry = new XxlConfMonitorRegistry();
+    }
+
+    @After
+    public void tearDown() {
+        registry.stop();
+    }
+
+    private XxlConfMonitorRegistry.Monitor register(boolean inline, String... keys) {
+        XxlConfMonitorRegistry.Monitor monitor = new XxlConfMonitorRegistry.Monitor("test",
+                new HashSet<String>(Arrays.asList(keys)), new TestDeferredResult(), inline);
+        registry.register(monitor);
+        return monitor;
+    }
+
+    private static Map<String, String> data(String... keys) {
+        Map<String, String> data = new HashMap<>();
+        for (String key: keys) {
+            data.put(key, key + "-value");
+        }
+        return data;
+    }
+
+    private static Map<String, Long> revisions(String... keys) {
+        Map<String, Long> revisions = new HashMap<>();
+        for (String key: keys) {
+            revisions.put(key, 100L);
+        }
+        return revisions;
+    }
+
+    private static XxlConfDataVO inlineResult(XxlConfMonitorRegistry.Monitor monitor) {
+        return (XxlConfDataVO) ((ReturnT<?>) monitor.getDeferredResult().getResult()).getData();
+    }
+
+    // ---------------------- complete ----------------------
+
+    @Test
+    public void completeOnce() {
+        XxlConfMonitorRegistry.Monitor monitor = register(true, "key01", "key02");
+        assertEquals(1, registry.monitorCount());
+
+        // keys updated together, one result with both
+        assertEquals(1, registry.notify("test", data("key01", "key02"), revisions("key01", "key02"), 100));
+        assertEquals(2, inlineResult(monitor).getData().size());
+        assertEquals(100, inlineResult(monitor).getRevision());
+        assertEquals(0, registry.monitorCount());
+
+        // later update, not completed again
+        assertEquals(0, registry.notify("test", data("key02"), revisions("key02"), 101));
+        assertFalse(monitor.complete(new ReturnT<String>("again")));
+        assertEquals(2, inlineResult(monitor).getData().size());
+    }
+
+    @Test
+    public void completeWithOwnKeys() {
+        XxlConfMonitorRegistry.Monitor monitor01 = register(true, "key01");
+        XxlConfMonitorRegistry.Monitor monitor02 = register(true, "key01", "key02");
+        XxlConfMonitorRegistry.Monitor monitor03 = register(true, "key03");
+
+        assertEquals(2, registry.notify("test", data("key01", "key02"), revisions("key01", "key02"), 100));
+        assertEquals(Collections.singleton("key01"), inlineResult(monitor01).getData().keySet());
+        assertEquals(new HashSet<>(Arrays.asList("key01", "key02")), inlineResult(monitor02).getData().keySet());
+        assertFalse(monitor03.getDeferredResult().hasResult());
+        assertEquals(1, registry.monitorCount());
+    }
+
+    @Test
+    public void completeLegacyKeyList() {
+        XxlConfMonitorRegistry.Monitor monitor = register(false, "key01", "key02");
+
+        assertEquals(1, registry.notify("test", data("key01"), revisions("key01"), 100));
+        ReturnT<?> result = (ReturnT<?>) monitor.getDeferredResult().getResult();
+        assertEquals(ReturnT.SUCCESS_CODE, result.getCode());
+        assertEquals(Collections.singletonList("key01"), result.getData());
+    }
+
+    @Test
+    public void otherEnvNotCompleted() {
+        XxlConfMonitorRegistry.Monitor monitor = register(true, "key01");
+
+        assertEquals(0, registry.notify("other", data("key01"), revisions("key01"), 100));
+        assertFalse(monitor.getDeferredResult().hasResult());
+    }
+
+    // ---------------------- remove ----------------------
+
+    @Test
+    public void removeOnTimeout() {
+        XxlConfMonitorRegistry.Monitor monitor = register(true, "key01", "key02");
+        assertEquals(1, registry.monitorCount());
+
+        ((TestDeferredResult) monitor.getDeferredResult()).timeoutCallback.run();
+        assertEquals(0, registry.monitorCount());
+        assertEquals(0, registry.notify("test", data("key01", "key02"), revisions("key01", "key02"), 100));
+        assertFalse(monitor.getDeferredResult().hasResult());
+    }
+
+    @Test
+    public void removeOnCompletion() {
+        XxlConfMonitorRegistry.Monitor monitor = register(true, "key01");
+
+        // such as connection closed by client
+        ((TestDeferredResult) monitor.getDeferredResult()).completionCallback.run();
+        assertEquals(0, registry.monitorCount());
+
+        // removed twice, count not negative
+        registry.remove(monitor);
+        assertEquals(0, registry.monitorCount());
+    }
+
+    @Test
+    public void manyMonitorsNoLeak() {
+        List<XxlConfMonitorRegistry.Monitor> monitors = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            monitors.add(register(true, "key" + (i % 10), "other" + i));
+        }
+        assertEquals(100, registry.monitorCount());
+
+        for (int i = 0; i < 50; i++) {
+            ((TestDeferredResult) monitors.get(i).getDeferredResult()).timeoutCallback.run();
+        }
+        assertEquals(50, registry.monitorCount());
+        assertEquals(50, registry.notify("test", data("key0", "key1", "key2", "key3", "key4", "key5", "key6", "key7", "key8", "key9"),
+                revisions("key0", "key1", "key2", "key3", "key4", "key5", "key6", "key7", "key8", "key9"), 100));
+        assertEquals(0, registry.monitorCount());
+    }
+
+    // ---------------------- spread ----------------------
+
+    @Test
+    public void spreadInline() throws InterruptedException {
+        registry.setSpread(2, 200);
+        List<XxlConfMonitorRegistry.Monitor> monitors = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            monitors.add(register(true, "key01"));
+        }
+        XxlConfMonitorRegistry.Monitor legacyMonitor = register(false, "key01");
+
+        // more than threshold: inline delayed in window, legacy completed at once; all removed at once
+        assertEquals(6, registry.notify("test", data("key01"), revisions("key01"), 100));
+        assertTrue(legacyMonitor.getDeferredResult().hasResult());
+        assertEquals(0, registry.monitorCount());
+
+        TimeUnit.MILLISECONDS.sleep(500);
+        for (XxlConfMonitorRegistry.Monitor monitor: monitors) {
+            assertTrue(monitor.getDeferredResult().hasResult());
+            assertEquals("key01-value", inlineResult(monitor).getData().get("key01"));
+        }
+    }
+
+    @Test
+    public void spreadNotReached() {
+        registry.setSpread(2, 60 * 1000);
+        XxlConfMonitorRegistry.Monitor monitor01 = register(true, "key01");
+        XxlConfMonitorRegistry.Monitor monitor02 = register(true, "key01");
+
+        assertEquals(2, registry.notify("test", data("key01"), revisions("key01"), 100));
+        assertTrue(monitor01.getDeferredResult().hasResult());
+        assertTrue(monitor02.getDeferredResult().hasResult());
+    }
+
+}
@@ -0,0 +1,116 @@
+package com.xxl.conf.admin.test.monitor;
+
+import com.xxl.conf.admin.core.monitor.XxlConfSessionRegistry;
+import com.xxl.conf.core.util.KeyDigestUtil;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * XxlConfSessionRegistry: register, incremental update, digest, expiry
+ */
+public class XxlConfSessionRegistryTest {
+
+    private XxlConfSessionRegistry registry;
+
+    @Before
+    public void setUp() {
+        // key with "invalid" prefix not valid
+        registry = new XxlConfSessionRegistry(new XxlConfSessionRegistry.KeyValidator() {
+            @Override
+            public boolean valid(String key) {
+                return !key.startsWith("invalid");
+            }
+        });
+    }
+
+    private static Set<String> keys(String... keys) {
+        return new HashSet<>(Arrays.asList(keys));
+    }
+
+    // ---------------------- register ----------------------
+
+    @Test
+    public void register() {
+        XxlConfSessionRegistry.Session session = registry.register("test", Arrays.asList("key01", "invalid01", null));
+
+        assertNotNull(session.getSessionId());
+        assertEquals(keys("key01", "invalid01"), session.getKeys());
+        assertEquals(keys("key01"), session.getValidKeys());
+        assertEquals(KeyDigestUtil.digest(keys("key01", "invalid01")), session.getDigest());
+        assertEquals(1, registry.sessionCount());
+
+        assertSame(session, registry.get(session.getSessionId(), "test", session.getDigest()));
+        assertSame(session, registry.get(session.getSessionId(), "test", null));
+    }
+
+    @Test
+    public void getInvalid() {
+        XxlConfSessionRegistry.Session session = registry.register("test", Arrays.asList("key01"));
+
+        assertNull(registry.get(null, "test", null));
+        assertNull(registry.get("not-exists", "test", null));
+        assertNull(registry.get(session.getSessionId(), "other", null));
+        assertNull(registry.get(session.getSessionId(), "test", "digest-not-match"));
+    }
+
+    // ---------------------- update ----------------------
+
+    @Test
+    public void update() {
+        XxlConfSessionRegistry.Session session = registry.register("test", Arrays.asList("key01", "key02"));
+
+        XxlConfSessionRegistry.Session newSession = registry.update(session.getSessionId(), "test",
+                Arrays.asList("key03", "invalid01"), Arrays.asList("key01"));
+        assertEquals(session.getSessionId(), newSession.getSessionId());
+        assertEquals(keys("key02", "key03", "invalid01"), newSession.getKeys());
+        assertEquals(keys("key02", "key03"), newSession.getValidKeys());
+
+        // digest same as client computed on its key set
+        assertEquals(KeyDigestUtil.digest(keys("key02", "key03", "invalid01")), newSession.getDigest());
+        assertNull(registry.get(session.getSessionId(), "test", session.getDigest()));
+        assertSame(newSession, registry.get(session.getSessionId(), "test", newSession.getDigest()));
+        assertEquals(1, registry.sessionCount());
+
+        // old session not changed
+        assertEquals(keys("key01", "key02"), session.getKeys());
+    }
+
+    @Test
+    public void updateInvalid() {
+        assertNull(registry.update("not-exists", "test", Arrays.asList("key01"), null));
+
+        XxlConfSessionRegistry.Session session = registry.register("test", Arrays.asList("key01"));
+        assertNull(registry.update(session.getSessionId(), "other", Arrays.asList("key02"), null));
+    }
+
+    @Test
+    public void parseNotRegistered() {
+        XxlConfSessionRegistry.Session session = registry.parse("test", Arrays.asList("key01", "invalid01"));
+
+        assertNull(session.getSessionId());
+        assertEquals(keys("key01"), session.getValidKeys());
+        assertEquals(0, registry.sessionCount());
+    }
+
+    // ---------------------- expiry ----------------------
+
+    @Test
+    public void cleanExpired() throws InterruptedException {
+        XxlConfSessionRegistry.Session expiredSession = registry.register("test", Arrays.asList("key01"));
+        XxlConfSessionRegistry.Session accessedSession = registry.register("test", Arrays.asList("key02"));
+        TimeUnit.MILLISECONDS.sleep(100);
+
+        // access refresh expiry
+        registry.get(accessedSession.getSessionId(), "test", null);
+        assertEquals(1, registry.clean(50));
+        assertNull(registry.get(expiredSession.getSessionId(), "test", null));
+        assertNotNull(registry.get(accessedSession.getSessionId(), "test", null));
+        assertEquals(1, registry.sessionCount());
+    }
+
+}
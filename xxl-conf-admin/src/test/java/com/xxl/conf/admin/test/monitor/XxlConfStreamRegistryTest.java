@@ -0,0 +1,179 @@
+package com.xxl.conf.admin.test.monitor;
+
+import com.xxl.conf.admin.core.monitor.XxlConfStreamRegistry;
+import com.xxl.conf.core.model.XxlConfDataVO;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+/**
+ * XxlConfStreamRegistry: push of own keys, removal on timeout/completion/send fail, heartbeat
+ */
+public class XxlConfStreamRegistryTest {
+
+    /**
+     * emitter not handled by container, event recorded (text, and conf pushed); timeout/completion fired by test, send fail on demand
+     */
+    private static class TestSseEmitter extends SseEmitter {
+        private final List<String> events = new ArrayList<>();
+        private final List<XxlConfDataVO> confs = new ArrayList<>();
+        private boolean broken = false;
+        private boolean completed = false;
+        private Runnable timeoutCallback;
+        private Runnable completionCallback;
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            if (broken) {
+                throw new IOException("Broken pipe");
+            }
+            StringBuilder event = new StringBuilder();
+            for (DataWithMediaType item: builder.build()) {
+                if (item.getData() instanceof XxlConfDataVO) {
+                    confs.add((XxlConfDataVO) item.getData());
+                } else {
+                    event.append(item.getData());
+                }
+            }
+            events.add(event.toString());
+        }
+
+        @Override
+        public synchronized void complete() {
+            completed = true;
+        }
+
+        @Override
+        public synchronized void onTimeout(Runnable callback) {
+            this.timeoutCallback = callback;
+        }
+
+        @Override
+        public synchronized void onCompletion(Runnable callback) {
+            this.completionCallback = callback;
+        }
+    }
+
+    private XxlConfStreamRegistry registry;
+
+    @Before
+    public void setUp() {
+        registry = new XxlConfStreamRegistry();
+    }
+
+    private XxlConfStreamRegistry.Stream register(String... keys) {
+        XxlConfStreamRegistry.Stream stream = new XxlConfStreamRegistry.Stream("test",
+                new HashSet<String>(Arrays.asList(keys)), new TestSseEmitter());
+        registry.register(stream);
+        return stream;
+    }
+
+    private static TestSseEmitter emitter(XxlConfStreamRegistry.Stream stream) {
+        return (TestSseEmitter) stream.getEmitter();
+    }
+
+    private static Map<String, String> data(String... keys) {
+        Map<String, String> data = new HashMap<>();
+        for (String key: keys) {
+            data.put(key, key + "-value");
+        }
+        return data;
+    }
+
+    private static Map<String, Long> revisions(String... keys) {
+        Map<String, Long> revisions = new HashMap<>();
+        for (String key: keys) {
+            revisions.put(key, 100L);
+        }
+        return revisions;
+    }
+
+    // ---------------------- push ----------------------
+
+    @Test
+    public void pushOwnKeys() {
+        XxlConfStreamRegistry.Stream stream01 = register("key01");
+        XxlConfStreamRegistry.Stream stream02 = register("key01", "key02");
+        XxlConfStreamRegistry.Stream stream03 = register("key03");
+
+        // one event for each stream, with its own keys
+        assertEquals(2, registry.push("test", data("key01", "key02"), revisions("key01", "key02"), 100));
+        assertEquals(1, emitter(stream01).events.size());
+        assertTrue(emitter(stream01).events.get(0).contains("event:" + XxlConfStreamRegistry.EVENT_CONF));
+        assertEquals(Collections.singletonMap("key01", "key01-value"), emitter(stream01).confs.get(0).getData());
+        assertEquals(100, emitter(stream01).confs.get(0).getRevision());
+        assertEquals(1, emitter(stream02).events.size());
+        assertEquals(data("key01", "key02"), emitter(stream02).confs.get(0).getData());
+        assertEquals(0, emitter(stream03).events.size());
+
+        // stream kept, pushed again on next change
+        assertEquals(1, registry.push("test", data("key02"), revisions("key02"), 101));
+        assertEquals(2, emitter(stream02).events.size());
+        assertEquals(3, registry.streamCount());
+    }
+
+    @Test
+    public void otherEnvNotPushed() {
+        XxlConfStreamRegistry.Stream stream = register("key01");
+
+        assertEquals(0, registry.push("other", data("key01"), revisions("key01"), 100));
+        assertEquals(0, emitter(stream).events.size());
+    }
+
+    // ---------------------- remove ----------------------
+
+    @Test
+    public void removeOnTimeout() {
+        XxlConfStreamRegistry.Stream stream = register("key01", "key02");
+        assertEquals(1, registry.streamCount());
+
+        emitter(stream).timeoutCallback.run();
+        assertEquals(0, registry.streamCount());
+        assertEquals(0, registry.push("test", data("key01"), revisions("key01"), 100));
+        assertEquals(0, emitter(stream).events.size());
+    }
+
+    @Test
+    public void removeOnCompletion() {
+        XxlConfStreamRegistry.Stream stream = register("key01");
+
+        emitter(stream).completionCallback.run();
+        assertEquals(0, registry.streamCount());
+
+        // completed, not sent
+        assertFalse(stream.send(SseEmitter.event().comment("heartbeat")));
+    }
+
+    @Test
+    public void removeOnSendFail() {
+        XxlConfStreamRegistry.Stream stream01 = register("key01");
+        XxlConfStreamRegistry.Stream stream02 = register("key01");
+        emitter(stream01).broken = true;
+
+        assertEquals(1, registry.push("test", data("key01"), revisions("key01"), 100));
+        assertTrue(emitter(stream01).completed);
+        assertEquals(1, registry.streamCount());
+        assertEquals(1, emitter(stream02).events.size());
+    }
+
+    // ---------------------- heartbeat ----------------------
+
+    @Test
+    public void heartbeat() {
+        XxlConfStreamRegistry.Stream stream01 = register("key01");
+        XxlConfStreamRegistry.Stream stream02 = register("key02");
+        emitter(stream02).broken = true;
+
+        registry.heartbeat();
+        assertEquals(1, emitter(stream01).events.size());
+        assertTrue(emitter(stream01).events.get(0).startsWith(":heartbeat"));
+        assertTrue(emitter(stream02).completed);
+        assertEquals(1, registry.streamCount());
+    }
+
+}
@@ -0,0 +1,207 @@
+package com.xxl.conf.admin.test.service;
+
+import com.xxl.conf.admin.core.model.XxlConfNodeMsg;
+import com.xxl.conf.admin.core.util.ReturnT;
+import com.xxl.conf.admin.dao.XxlConfNodeMsgDao;
+import com.xxl.conf.admin.service.impl.XxlConfNodeServiceImpl;
+import com.xxl.conf.core.model.XxlConfDataVO;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+/**
+ * XxlConfNodeServiceImpl: safe revision held back by msg gap and change set ahead of cursor; file clean
+ */
+public class XxlConfNodeServiceImplTest {
+
+    @Rule
+    public TemporaryFolder confDataFolder = new TemporaryFolder();
+
+    /**
+     * fake msg dao, change set msg by changeset id
+     */
+    private static class FakeMsgDao implements XxlConfNodeMsgDao {
+        private final Map<String, List<XxlConfNodeMsg>> changesetMap = new HashMap<>();
+
+        @Override
+        public void add(XxlConfNodeMsg xxlConfNode) {
+        }
+
+        @Override
+        public List<XxlConfNodeMsg> findMsg(int lastMsgId, int pagesize) {
+            return Collections.emptyList();
+        }
+
+        @Override
+        public List<XxlConfNodeMsg> findMsgByIds(List<Integer> msgIds) {
+            return Collections.emptyList();
+        }
+
+        @Override
+        public List<XxlConfNodeMsg> findMsgByChangeset(String changeset) {
+            return changesetMap.get(changeset);
+        }
+
+        @Override
+        public int cleanMessage(int messageTimeout, int pagesize) {
+            return 0;
+        }
+    }
+
+    private XxlConfNodeServiceImpl service;
+    private FakeMsgDao msgDao;
+
+    private List<String> keys = Arrays.asList("default.key01", "default.key02", "default.key03", "default.key04", "default.key05");
+
+    @Before
+    public void setUp() throws Exception {
+        msgDao = new FakeMsgDao();
+
+        // threads not started, msg applied by test
+        service = new XxlConfNodeServiceImpl();
+        setField("xxlConfNodeMsgDao", msgDao);
+        setField("confDataFilePath", confDataFolder.getRoot().getPath());
+        setField("confDataIndexReady", true);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        service.destroy();
+    }
+
+    private void setField(String name, Object value) throws Exception {
+        Field field = XxlConfNodeServiceImpl.class.getDeclaredField(name);
+        field.setAccessible(true);
+        field.set(service, value);
+    }
+
+    /**
+     * apply msg read by msg-sync thread, with cursor and gap
+     */
+    private void applyConfMsg(int msgCursor, int msgGapMinId, XxlConfNodeMsg... messages) throws Exception {
+        setField("msgReadCursor", msgCursor);
+        setField("msgGapMinId", msgGapMinId);
+
+        Method method = XxlConfNodeServiceImpl.class.getDeclaredMethod("applyConfMsg", List.class, int.class);
+        method.setAccessible(true);
+        method.invoke(service, Arrays.asList(messages), msgCursor);
+    }
+
+    private static XxlConfNodeMsg msg(int id, String key, String changeset) {
+        XxlConfNodeMsg message = new XxlConfNodeMsg();
+        message.setId(id);
+        message.setEnv("test");
+        message.setKey(key);
+        message.setValue("value" + id);
+        message.setChangeset(changeset);
+        return message;
+    }
+
+    private XxlConfDataVO find(long revision) {
+        ReturnT<XxlConfDataVO> result = service.find(null, "test", keys, null, null, revision);
+        assertEquals(ReturnT.SUCCESS_CODE, result.getCode());
+        return result.getData();
+    }
+
+    // ---------------------- gap ----------------------
+
+    @Test
+    public void gapHoldBack() throws Exception {
+        // msg 4 in-flight transaction, 5 applied first
+        applyConfMsg(5, 4, msg(1, "default.key01", null), msg(2, "default.key02", null), msg(3, "default.key03", null), msg(5, "default.key05", null));
+
+        XxlConfDataVO dataVO = find(-1);
+        assertEquals(3, dataVO.getRevision());
+        assertEquals("value5", dataVO.getData().get("default.key05"));
+
+        // gap read, safe revision catch up; client at held-back revision find msg after gap again
+        applyConfMsg(5, -1, msg(4, "default.key04", null));
+        dataVO = find(3);
+        assertEquals(5, dataVO.getRevision());
+        assertEquals(new HashSet<>(Arrays.asList("default.key04", "default.key05")), dataVO.getData().keySet());
+    }
+
+    @Test
+    public void gapNotAffectOlderRevision() throws Exception {
+        applyConfMsg(3, 10, msg(1, "default.key01", null), msg(3, "default.key03", null));
+
+        assertEquals(3, find(-1).getRevision());
+    }
+
+    // ---------------------- change set ----------------------
+
+    @Test
+    public void changesetHoldBack() throws Exception {
+        // change set of 9, 11, 12: 9 read, 11 and 12 ahead of cursor applied together
+        msgDao.changesetMap.put("cs01", Arrays.asList(msg(9, "default.key01", "cs01"), msg(11, "default.key02", "cs01"), msg(12, "default.key03", "cs01")));
+        applyConfMsg(10, -1, msg(9, "default.key01", "cs01"));
+
+        // change set not split, revision held back to cursor
+        XxlConfDataVO dataVO = find(-1);
+        assertEquals(10, dataVO.getRevision());
+        assertEquals("value11", dataVO.getData().get("default.key02"));
+        assertEquals("value12", dataVO.getData().get("default.key03"));
+
+        // cursor catch up
+        applyConfMsg(12, -1);
+        assertEquals(12, find(10).getRevision());
+    }
+
+    @Test
+    public void changesetMonitorRevision() throws Exception {
+        DeferredResult<ReturnT<?>> deferredResult = service.monitor(null, "test", keys, null, null, 0L);
+        assertFalse(deferredResult.hasResult());
+
+        msgDao.changesetMap.put("cs01", Arrays.asList(msg(1, "default.key01", "cs01"), msg(3, "default.key02", "cs01")));
+        applyConfMsg(2, -1, msg(1, "default.key01", "cs01"), msg(2, "default.key04", null));
+
+        // inline change set, with safe revision: client find again from cursor, not skip msg ahead
+        XxlConfDataVO dataVO = (XxlConfDataVO) ((ReturnT<?>) deferredResult.getResult()).getData();
+        assertEquals(2, dataVO.getRevision());
+        assertEquals(3, dataVO.getData().size());
+        assertEquals(Long.valueOf(3), dataVO.getRevisions().get("default.key02"));
+    }
+
+    // ---------------------- file clean ----------------------
+
+    private File newFile(String path) throws IOException {
+        File file = new File(confDataFolder.getRoot(), path);
+        file.getParentFile().mkdirs();
+        file.createNewFile();
+        return file;
+    }
+
+    @Test
+    public void cleanFileAndEmptyDir() throws Exception {
+        File keepFile = newFile("test/default.key01.properties");
+        File orphanFile = newFile("test/default.key02.properties");
+        File orphanEnvFile = newFile("old/default.key01.properties");
+        File orphanDeepFile = newFile("old/sub/default.key01.properties");
+
+        service.cleanFileConfData(Collections.singleton(keepFile.getPath()));
+
+        // orphan file removed, env dir left empty removed in same walk; root kept
+        assertTrue(keepFile.exists());
+        assertFalse(orphanFile.exists());
+        assertFalse(orphanEnvFile.exists());
+        assertFalse(orphanDeepFile.exists());
+        assertFalse(new File(confDataFolder.getRoot(), "old").exists());
+        assertTrue(new File(confDataFolder.getRoot(), "test").exists());
+
+        service.cleanFileConfData(Collections.<String>emptySet());
+        assertTrue(confDataFolder.getRoot().exists());
+        assertEquals(0, confDataFolder.getRoot().list().length);
+    }
+
+}
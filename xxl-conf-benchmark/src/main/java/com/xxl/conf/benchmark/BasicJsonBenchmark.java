@@ -0,0 +1,62 @@
+package com.xxl.conf.benchmark;
+
+import com.xxl.conf.core.model.XxlConfParamVO;
+import com.xxl.conf.core.util.json.BasicJson;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * BasicJson, parse "/conf/find" response and serialize monitor request
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BasicJsonBenchmark {
+
+    @Param({"10", "1000", "10000"})
+    public int keyCount;
+
+    private String findResponseJson;
+    private XxlConfParamVO paramVO;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        Map<String, String> confData = XxlConfBenchmarkSupport.confData(keyCount);
+
+        // find response
+        Map<String, Object> dataVO = new HashMap<>();
+        dataVO.put("revision", 100L);
+        dataVO.put("data", confData);
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("code", 200);
+        response.put("msg", null);
+        response.put("data", dataVO);
+        findResponseJson = BasicJson.toJson(response);
+
+        // monitor request
+        paramVO = new XxlConfParamVO();
+        paramVO.setAccessToken("token");
+        paramVO.setEnv("benchmark");
+        paramVO.setKeys(new ArrayList<String>(confData.keySet()));
+        paramVO.setRevision(100L);
+    }
+
+    @Benchmark
+    public Map<String, Object> parseMap() {
+        return BasicJson.parseMap(findResponseJson);
+    }
+
+    @Benchmark
+    public String toJson() {
+        return BasicJson.toJson(paramVO);
+    }
+
+}
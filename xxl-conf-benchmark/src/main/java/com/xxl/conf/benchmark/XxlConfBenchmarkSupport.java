@@ -0,0 +1,65 @@
+package com.xxl.conf.benchmark;
+
+import com.xxl.conf.core.core.XxlConfLocalCacheConf;
+import com.xxl.conf.core.factory.XxlConfBaseFactory;
+import com.xxl.conf.core.util.PropUtil;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * benchmark support, client preloaded from mirror file, no admin required
+ */
+public class XxlConfBenchmarkSupport {
+
+    // unreachable admin, preload from mirror data; refresh thread stopped after init
+    private static final String ADMIN_ADDRESS = "http://127.0.0.1:1/xxl-conf-admin";
+    private static final String ENV = "benchmark";
+
+    public static String confKey(int index) {
+        return "benchmark.key" + index;
+    }
+
+    /**
+     * conf data, key -> numeric value
+     */
+    public static Map<String, String> confData(int keyCount) {
+        Map<String, String> confData = new LinkedHashMap<>();
+        for (int i = 0; i < keyCount; i++) {
+            confData.put(confKey(i), String.valueOf(i));
+        }
+        return confData;
+    }
+
+    /**
+     * write mirror file, and init client by it
+     *
+     * @param keyCount
+     * @return mirror file
+     */
+    public static File initClient(int keyCount) throws IOException {
+        File mirrorFile = File.createTempFile("xxl-conf-mirror-benchmark", ".properties");
+        mirrorFile.deleteOnExit();
+
+        Properties prop = new Properties();
+        prop.putAll(confData(keyCount));
+        PropUtil.writeFileProp(prop, mirrorFile.getPath());
+
+        XxlConfBaseFactory.init(ADMIN_ADDRESS, ENV, null, mirrorFile.getPath());
+
+        // stop refresh thread, cache kept; no background remote fail, backoff and mirror write while measuring
+        XxlConfLocalCacheConf.destroy();
+        return mirrorFile;
+    }
+
+    public static void destroyClient(File mirrorFile) {
+        XxlConfBaseFactory.destroy();
+        if (mirrorFile != null) {
+            mirrorFile.delete();
+        }
+    }
+
+}
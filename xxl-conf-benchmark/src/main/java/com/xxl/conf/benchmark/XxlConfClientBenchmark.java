@@ -0,0 +1,52 @@
+package com.xxl.conf.benchmark;
+
+import com.xxl.conf.core.XxlConfClient;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.File;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * XxlConfClient.get / getInt, local cache hit under contention
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(8)
+@State(Scope.Benchmark)
+public class XxlConfClientBenchmark {
+
+    private static final int KEY_COUNT = 1000;
+
+    private File mirrorFile;
+    private String[] keys;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        mirrorFile = XxlConfBenchmarkSupport.initClient(KEY_COUNT);
+        keys = XxlConfBenchmarkSupport.confData(KEY_COUNT).keySet().toArray(new String[KEY_COUNT]);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        XxlConfBenchmarkSupport.destroyClient(mirrorFile);
+    }
+
+    @State(Scope.Thread)
+    public static class KeyCursor {
+        int index;
+    }
+
+    @Benchmark
+    public String get(KeyCursor cursor) {
+        return XxlConfClient.get(keys[(cursor.index++) % KEY_COUNT], null);
+    }
+
+    @Benchmark
+    public int getInt(KeyCursor cursor) {
+        return XxlConfClient.getInt(keys[(cursor.index++) % KEY_COUNT]);
+    }
+
+}
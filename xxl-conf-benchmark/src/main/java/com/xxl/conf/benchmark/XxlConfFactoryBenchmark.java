@@ -0,0 +1,65 @@
+package com.xxl.conf.benchmark;
+
+import com.xxl.conf.core.listener.impl.BeanRefreshXxlConfListener;
+import com.xxl.conf.core.spring.XxlConfFactory;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * XxlConfFactory.refreshBeanField, by setter and by field
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class XxlConfFactoryBenchmark {
+
+    public static class DemoConf {
+        private int paramBySetter;
+        private int paramByField;
+
+        public int getParamBySetter() {
+            return paramBySetter;
+        }
+
+        public void setParamBySetter(int paramBySetter) {
+            this.paramBySetter = paramBySetter;
+        }
+    }
+
+    private DemoConf demoConf;
+    private BeanRefreshXxlConfListener.BeanField setterField;
+    private BeanRefreshXxlConfListener.BeanField fieldField;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        demoConf = new DemoConf();
+
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        beanFactory.registerSingleton("demoConf", demoConf);
+        new XxlConfFactory().setBeanFactory(beanFactory);
+
+        setterField = new BeanRefreshXxlConfListener.BeanField("demoConf", "paramBySetter");
+        fieldField = new BeanRefreshXxlConfListener.BeanField("demoConf", "paramByField");
+    }
+
+    @Benchmark
+    public void refreshBySetter() {
+        XxlConfFactory.refreshBeanField(setterField, "100", demoConf);
+    }
+
+    @Benchmark
+    public void refreshByField() {
+        XxlConfFactory.refreshBeanField(fieldField, "100", demoConf);
+    }
+
+    @Benchmark
+    public void refreshWithBeanLookup() {
+        XxlConfFactory.refreshBeanField(setterField, "100", null);
+    }
+
+}
@@ -0,0 +1,53 @@
+package com.xxl.conf.benchmark;
+
+import com.xxl.conf.core.listener.XxlConfListener;
+import com.xxl.conf.core.listener.XxlConfListenerFactory;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.File;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * XxlConfListenerFactory.onChange, fan-out to listeners of one key
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class XxlConfListenerBenchmark {
+
+    @Param({"1", "10", "100"})
+    public int listenerCount;
+
+    private File mirrorFile;
+    private String key;
+
+    @Setup(Level.Trial)
+    public void setup(final Blackhole blackhole) throws Exception {
+        mirrorFile = XxlConfBenchmarkSupport.initClient(1);
+        key = XxlConfBenchmarkSupport.confKey(0);
+
+        for (int i = 0; i < listenerCount; i++) {
+            XxlConfListenerFactory.addListener(key, new XxlConfListener() {
+                @Override
+                public void onChange(String key, String value) throws Exception {
+                    blackhole.consume(value);
+                }
+            });
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        XxlConfBenchmarkSupport.destroyClient(mirrorFile);
+    }
+
+    @Benchmark
+    public void onChange() {
+        XxlConfListenerFactory.onChange(key, "value");
+    }
+
+}
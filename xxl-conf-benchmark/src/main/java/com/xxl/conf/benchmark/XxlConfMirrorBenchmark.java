@@ -0,0 +1,46 @@
+package com.xxl.conf.benchmark;
+
+import com.xxl.conf.core.core.XxlConfMirrorConf;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.File;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * XxlConfMirrorConf.writeConfMirror, written every refresh cycle
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class XxlConfMirrorBenchmark {
+
+    @Param({"10", "1000", "10000"})
+    public int keyCount;
+
+    private File mirrorFile;
+    private Map<String, String> confData;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        mirrorFile = File.createTempFile("xxl-conf-mirror-benchmark", ".properties");
+        mirrorFile.deleteOnExit();
+
+        XxlConfMirrorConf.init(mirrorFile.getPath());
+        confData = XxlConfBenchmarkSupport.confData(keyCount);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        mirrorFile.delete();
+    }
+
+    @Benchmark
+    public void writeConfMirror() {
+        XxlConfMirrorConf.writeConfMirror(confData);
+    }
+
+}
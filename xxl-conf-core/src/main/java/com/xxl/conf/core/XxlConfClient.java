@@ -2,9 +2,16 @@ package com.xxl.conf.core;
 
 import com.xxl.conf.core.core.XxlConfLocalCacheConf;
 import com.xxl.conf.core.exception.XxlConfException;
+import com.xxl.conf.core.handle.*;
+import com.xxl.conf.core.listener.XxlConfBatchListener;
 import com.xxl.conf.core.listener.XxlConfListener;
 import com.xxl.conf.core.listener.XxlConfListenerFactory;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Future;
+
 /**
  * xxl conf client
  *
@@ -33,11 +40,7 @@ public class XxlConfClient {
 	 * @return
 	 */
 	public static boolean getBoolean(String key) {
-		String value = get(key, null);
-		if (value == null) {
-			throw new XxlConfException("config key [" + key + "] does not exist");
-		}
-		return Boolean.valueOf(value);
+		return getNode(key).getTypedView().getBoolean();
 	}
 
 	/**
@@ -47,11 +50,7 @@ public class XxlConfClient {
 	 * @return
 	 */
 	public static short getShort(String key) {
-		String value = get(key, null);
-		if (value == null) {
-			throw new XxlConfException("config key [" + key + "] does not exist");
-		}
-		return Short.valueOf(value);
+		return getNode(key).getTypedView().getShort();
 	}
 
 	/**
@@ -61,11 +60,7 @@ public class XxlConfClient {
 	 * @return
 	 */
 	public static int getInt(String key) {
-		String value = get(key, null);
-		if (value == null) {
-			throw new XxlConfException("config key [" + key + "] does not exist");
-		}
-		return Integer.valueOf(value);
+		return getNode(key).getTypedView().getInt();
 	}
 
 	/**
@@ -75,11 +70,7 @@ public class XxlConfClient {
 	 * @return
 	 */
 	public static long getLong(String key) {
-		String value = get(key, null);
-		if (value == null) {
-			throw new XxlConfException("config key [" + key + "] does not exist");
-		}
-		return Long.valueOf(value);
+		return getNode(key).getTypedView().getLong();
 	}
 
 	/**
@@ -89,11 +80,7 @@ public class XxlConfClient {
 	 * @return
 	 */
 	public static float getFloat(String key) {
-		String value = get(key, null);
-		if (value == null) {
-			throw new XxlConfException("config key [" + key + "] does not exist");
-		}
-		return Float.valueOf(value);
+		return getNode(key).getTypedView().getFloat();
 	}
 
 	/**
@@ -103,11 +90,132 @@ public class XxlConfClient {
 	 * @return
 	 */
 	public static double getDouble(String key) {
-		String value = get(key, null);
-		if (value == null) {
+		return getNode(key).getTypedView().getDouble();
+	}
+
+	/**
+	 * get conf (list), "[...]" as json array, others split by ","
+	 *
+	 * @param key
+	 * @return	immutable
+	 */
+	public static List<String> getList(String key) {
+		return getNode(key).getListView();
+	}
+
+	/**
+	 * get conf (map), "{...}" as json object, others like "k1:v1,k2:v2"
+	 *
+	 * @param key
+	 * @return	immutable
+	 */
+	public static Map<String, String> getMap(String key) {
+		return getNode(key).getMapView();
+	}
+
+	/**
+	 * get conf node, typed view cached with value
+	 */
+	private static XxlConfLocalCacheConf.CacheNode getNode(String key) {
+		XxlConfLocalCacheConf.CacheNode cacheNode = XxlConfLocalCacheConf.getNode(key);
+		if (cacheNode == null || cacheNode.getValue() == null) {
 			throw new XxlConfException("config key [" + key + "] does not exist");
 		}
-		return Double.valueOf(value);
+		return cacheNode;
+	}
+
+	/**
+	 * conf handle (string), live accessor refreshed in place when conf changed; register once and hold it
+	 *
+	 * @param key
+	 * @param defaultVal	used when conf not exists
+	 * @return
+	 */
+	public static ConfHandle<String> handle(String key, String defaultVal) {
+		return XxlConfHandleFactory.register(new StringConfHandle(key, defaultVal));
+	}
+
+	/**
+	 * conf handle (int), read by "getInt()" without map lookup and boxing
+	 *
+	 * @param key
+	 * @param defaultVal	used when conf not exists
+	 * @return
+	 */
+	public static IntConfHandle intHandle(String key, int defaultVal) {
+		return XxlConfHandleFactory.register(new IntConfHandle(key, defaultVal));
+	}
+
+	/**
+	 * conf handle (long)
+	 *
+	 * @param key
+	 * @param defaultVal	used when conf not exists
+	 * @return
+	 */
+	public static LongConfHandle longHandle(String key, long defaultVal) {
+		return XxlConfHandleFactory.register(new LongConfHandle(key, defaultVal));
+	}
+
+	/**
+	 * conf handle (boolean)
+	 *
+	 * @param key
+	 * @param defaultVal	used when conf not exists
+	 * @return
+	 */
+	public static BooleanConfHandle booleanHandle(String key, boolean defaultVal) {
+		return XxlConfHandleFactory.register(new BooleanConfHandle(key, defaultVal));
+	}
+
+	/**
+	 * get conf async (string), never block caller thread
+	 *
+	 * @param key
+	 * @param defaultVal
+	 * @return
+	 */
+	public static Future<String> getAsync(String key, String defaultVal) {
+		return XxlConfLocalCacheConf.getAsync(key, defaultVal);
+	}
+
+	/**
+	 * get conf async (string)
+	 *
+	 * @param key
+	 * @return
+	 */
+	public static Future<String> getAsync(String key) {
+		return getAsync(key, null);
+	}
+
+	/**
+	 * hit/miss stat of local cache, for each miss policy
+	 *
+	 * @return
+	 */
+	public static Map<String, Long> stat() {
+		return XxlConfLocalCacheConf.stat();
+	}
+
+	/**
+	 * get conf of keys, from one consistent local cache snapshot (no load, cached conf only)
+	 *
+	 * @param keys
+	 * @return
+	 */
+	public static Map<String, String> getAll(Collection<String> keys) {
+		return XxlConfLocalCacheConf.getAll(keys);
+	}
+
+	/**
+	 * add batch listener, invoke once for each refresh with old/new value of all changed key
+	 *
+	 * @param batchListener
+	 * @return
+	 */
+	public static boolean addBatchListener(XxlConfBatchListener batchListener){
+		return XxlConfListenerFactory.addBatchListener(batchListener);
 	}
 
 	/**
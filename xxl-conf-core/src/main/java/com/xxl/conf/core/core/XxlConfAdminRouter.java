@@ -0,0 +1,250 @@
+package com.xxl.conf.core.core;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * admin router, select admin node for each request
+ *
+ * 1、health: node circuit opened after continuous fail, no request until open time passed; then half-open, one probe request decides close or reopen;
+ * 2、latency: EWMA of request latency, fail counted as penalty latency;
+ * 3、selection: power of two choices among healthy nodes, less "EWMA latency * (inflight + 1)" wins (least-loaded);
+ *    all circuit open, the least-recently-opened node is tried rather than fail outright;
+ * 4、only request fail of node (connect/read fail, 5xx) counted, rejected request (4xx, local error) ignored;
+ */
+public class XxlConfAdminRouter {
+    private static Logger logger = LoggerFactory.getLogger(XxlConfAdminRouter.class);
+
+    private static final double EWMA_ALPHA = 0.3;                 // weight of new sample
+    private static final long FAIL_PENALTY_LATENCY = 3 * 1000;    // ms, latency sample of fail
+    private static final long LATENCY_EXPIRE = 30 * 1000;         // ms, latency not sampled for long is expired, node explored again
+    private static final int OPEN_FAIL_THRESHOLD = 3;             // continuous fail to open circuit
+    private static final long OPEN_TIME_BASE = 5 * 1000;          // ms, doubled when probe fail
+    private static final long OPEN_TIME_MAX = 60 * 1000;
+
+    /**
+     * admin node
+     */
+    public static class Node {
+
+        private final String address;
+
+        private volatile double ewmaLatency = 0;        // ms, 0 means no sample
+        private volatile long latencyTime = 0;
+        private final AtomicInteger inflight = new AtomicInteger(0);
+
+        private int failCount = 0;                      // continuous fail
+        private int openCount = 0;                      // continuous open
+        private volatile long openUntil = 0;            // circuit open until, 0 means closed
+        private volatile long openedAt = 0;             // circuit opened at
+        private volatile boolean probing = false;       // half-open, probe request in flight
+
+        public Node(String address) {
+            this.address = address;
+        }
+
+        public String getAddress() {
+            return address;
+        }
+
+        public double getEwmaLatency() {
+            return ewmaLatency;
+        }
+
+        public int getInflight() {
+            return inflight.get();
+        }
+
+        public boolean isOpen() {
+            return openUntil > 0;
+        }
+
+        private double score(long now) {
+            if (now - latencyTime > LATENCY_EXPIRE) {
+                return 0;
+            }
+            return ewmaLatency * (inflight.get() + 1);
+        }
+
+        /**
+         * half-open probe, only one in flight
+         */
+        private synchronized boolean tryProbe(long now) {
+            if (openUntil>0 && now>=openUntil && !probing) {
+                probing = true;
+                return true;
+            }
+            return false;
+        }
+
+        /**
+         * request start, counted as inflight
+         */
+        public void onStart() {
+            inflight.incrementAndGet();
+        }
+
+        /**
+         * request success
+         *
+         * @param latency   ms, <0 means not sampled (such as long polling)
+         */
+        public synchronized void onSuccess(long latency) {
+            if (latency >= 0) {
+                inflight.decrementAndGet();
+                updateLatency(latency);
+            }
+            failCount = 0;
+            if (openUntil > 0) {
+                logger.info(">>>>>>>>>> xxl-conf, admin node [{}] circuit closed.", address);
+            }
+            openCount = 0;
+            openUntil = 0;
+            probing = false;
+        }
+
+        /**
+         * request ignored, not a node fail (such as rejected by admin, or local error); probe released for next request
+         *
+         * @param sampled   true if started by onStart
+         */
+        public synchronized void onIgnore(boolean sampled) {
+            if (sampled) {
+                inflight.decrementAndGet();
+            }
+            probing = false;
+        }
+
+        /**
+         * request fail, such as connect refused or timeout
+         *
+         * @param sampled   true if started by onStart
+         */
+        public synchronized void onFail(boolean sampled) {
+            if (sampled) {
+                inflight.decrementAndGet();
+            }
+            updateLatency(FAIL_PENALTY_LATENCY);
+            failCount++;
+
+            // probe fail, or continuous fail; open circuit
+            if (probing || (openUntil==0 && failCount>=OPEN_FAIL_THRESHOLD)) {
+                long openDuration = Math.min(OPEN_TIME_MAX, OPEN_TIME_BASE << Math.min(openCount, 16));
+                openCount++;
+                openedAt = System.currentTimeMillis();
+                openUntil = openedAt + openDuration;
+                probing = false;
+                logger.warn(">>>>>>>>>> xxl-conf, admin node [{}] circuit opened for {}ms, fail count {}.", address, openDuration, failCount);
+            }
+        }
+
+        private void updateLatency(long latency) {
+            long now = System.currentTimeMillis();
+            ewmaLatency = (ewmaLatency==0 || now-latencyTime>LATENCY_EXPIRE)?latency:(ewmaLatency*(1-EWMA_ALPHA) + latency*EWMA_ALPHA);
+            latencyTime = now;
+        }
+
+        @Override
+        public String toString() {
+            return "Node{address='" + address + "', ewmaLatency=" + ewmaLatency + ", inflight=" + inflight.get() + ", open=" + isOpen() + "}";
+        }
+    }
+
+    private final List<Node> nodes;
+
+    /**
+     * @param adminAddress  comma separated, such as "http://a:8080/xxl-conf-admin,http://b:8080/xxl-conf-admin"
+     */
+    public XxlConfAdminRouter(String adminAddress) {
+        Set<String> addressSet = new LinkedHashSet<>();
+        for (String address: adminAddress.split(",")) {
+            address = address.trim();
+            while (address.endsWith("/")) {
+                address = address.substring(0, address.length()-1);
+            }
+            if (address.length() > 0) {
+                addressSet.add(address);
+            }
+        }
+
+        List<Node> nodes = new ArrayList<>();
+        for (String address: addressSet) {
+            nodes.add(new Node(address));
+        }
+        this.nodes = Collections.unmodifiableList(nodes);
+    }
+
+    public List<Node> getNodes() {
+        return nodes;
+    }
+
+    /**
+     * select next node for request, failover by excluding tried nodes
+     *
+     * @param excluded  nodes tried
+     * @return  null when no node available (all tried)
+     */
+    public Node select(Set<Node> excluded) {
+        return select(excluded, true);
+    }
+
+    /**
+     * select next node for request
+     *
+     * @param excluded  nodes tried
+     * @param probe     false will skip half-open node, for request whose fail can not be told (result must be reported if probe)
+     * @return
+     */
+    public Node select(Set<Node> excluded, boolean probe) {
+        long now = System.currentTimeMillis();
+
+        // half-open probe first, recover as soon as possible
+        if (probe) {
+            for (Node node: nodes) {
+                if (!excluded.contains(node) && node.tryProbe(now)) {
+                    return node;
+                }
+            }
+        }
+
+        // healthy nodes
+        List<Node> candidates = new ArrayList<>(nodes.size());
+        for (Node node: nodes) {
+            if (!excluded.contains(node) && !node.isOpen()) {
+                candidates.add(node);
+            }
+        }
+        if (candidates.size() == 0) {
+            // all circuit open, try the least-recently-opened one (first try only, no fail over among open nodes)
+            if (excluded.isEmpty()) {
+                Node leastRecentNode = null;
+                for (Node node: nodes) {
+                    if (node.isOpen() && (leastRecentNode==null || node.openedAt<leastRecentNode.openedAt)) {
+                        leastRecentNode = node;
+                    }
+                }
+                return leastRecentNode;
+            }
+            return null;
+        }
+        if (candidates.size() == 1) {
+            return candidates.get(0);
+        }
+
+        // power of two choices, least-loaded
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int first = random.nextInt(candidates.size());
+        int second = random.nextInt(candidates.size() - 1);
+        if (second >= first) {
+            second++;
+        }
+        Node firstNode = candidates.get(first);
+        Node secondNode = candidates.get(second);
+        return firstNode.score(now)<=secondNode.score(now)?firstNode:secondNode;
+    }
+
+}
@@ -1,16 +1,18 @@
 package com.xxl.conf.core.core;
 
 import com.xxl.conf.core.XxlConfClient;
+import com.xxl.conf.core.handle.XxlConfHandleFactory;
 import com.xxl.conf.core.listener.XxlConfListenerFactory;
+import com.xxl.conf.core.model.XxlConfDataVO;
+import com.xxl.conf.core.util.json.BasicJson;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.Serializable;
-import java.util.HashMap;
-import java.util.Map;
-import java.util.Set;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.TimeUnit;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * local cache conf
@@ -23,7 +25,12 @@ public class XxlConfLocalCacheConf {
 
     // ---------------------- init/destroy ----------------------
 
-    private static ConcurrentHashMap<String, CacheNode> localCacheRepository = null;
+    /**
+     * local cache, copy-on-write snapshot for batch: replaced as a whole, a batch of change visible at once;
+     * new conf of first use put in place (no copy), keep miss loading O(1) when many keys loaded at startup
+     */
+    private static volatile ConcurrentMap<String, CacheNode> localCacheRepository = null;
+    private static final Object localCacheWriteLock = new Object();
 
     private static Thread refreshThread;
     private static boolean refreshThreadStop = false;
@@ -38,19 +45,26 @@ public class XxlConfLocalCacheConf {
 
         Map<String, String> remoteConfData = null;
         if (mirrorConfData!=null && mirrorConfData.size()>0) {
-            remoteConfData = XxlConfRemoteConf.find(mirrorConfData.keySet());
+            XxlConfDataVO remoteConf = XxlConfRemoteConf.find(mirrorConfData.keySet(), -1);
+            if (remoteConf != null) {
+                remoteConfData = remoteConf.getData();
+                lastRevision = remoteConf.getRevision();
+            }
         }
 
         if (mirrorConfData!=null && mirrorConfData.size()>0) {
             preConfData.putAll(mirrorConfData);
+
+            // remote fail, mirror may be stale; find all on next refresh
+            if (remoteConfData == null) {
+                pendingKeys.addAll(mirrorConfData.keySet());
+            }
         }
         if (remoteConfData!=null && remoteConfData.size()>0) {
             preConfData.putAll(remoteConfData);
         }
         if (preConfData!=null && preConfData.size()>0) {
-            for (String preKey: preConfData.keySet()) {
-                set(preKey, preConfData.get(preKey), SET_TYPE.PRELOAD );
-            }
+            setBatch(preConfData, SET_TYPE.PRELOAD );
         }
 
         // refresh thread
@@ -85,12 +99,18 @@ public class XxlConfLocalCacheConf {
 
     /**
      * local cache node
+     *
+     * typed view (number/boolean, list, map) parsed lazily from value and cached, reset only when value changed
      */
     public static class CacheNode implements Serializable{
         private static final long serialVersionUID = 42L;
 
         private String value;
 
+        private transient volatile TypedView typedView;
+        private transient volatile List<String> listView;
+        private transient volatile Map<String, String> mapView;
+
         public CacheNode() {
         }
 
@@ -104,6 +124,182 @@ public class XxlConfLocalCacheConf {
 
         public void setValue(String value) {
             this.value = value;
+            this.typedView = null;
+            this.listView = null;
+            this.mapView = null;
+        }
+
+        public TypedView getTypedView() {
+            TypedView view = typedView;
+            if (view == null) {
+                view = new TypedView(value);
+                typedView = view;
+            }
+            return view;
+        }
+
+        /**
+         * list view, "[...]" parsed as json array, others split by ","
+         */
+        public List<String> getListView() {
+            List<String> view = listView;
+            if (view == null) {
+                view = parseList(value);
+                listView = view;
+            }
+            return view;
+        }
+
+        /**
+         * map view, "{...}" parsed as json object, others like "k1:v1,k2:v2"
+         */
+        public Map<String, String> getMapView() {
+            Map<String, String> view = mapView;
+            if (view == null) {
+                view = parseMap(value);
+                mapView = view;
+            }
+            return view;
+        }
+
+        private static List<String> parseList(String value) {
+            List<String> list = new ArrayList<>();
+            if (value != null) {
+                String trimValue = value.trim();
+                if (trimValue.startsWith("[")) {
+                    for (Object item: BasicJson.parseList(trimValue)) {
+                        list.add(item!=null?String.valueOf(item):null);
+                    }
+                } else {
+                    for (String item: trimValue.split(",")) {
+                        if (item.trim().length() > 0) {
+                            list.add(item.trim());
+                        }
+                    }
+                }
+            }
+            return Collections.unmodifiableList(list);
+        }
+
+        private static Map<String, String> parseMap(String value) {
+            Map<String, String> map = new LinkedHashMap<>();
+            if (value != null) {
+                String trimValue = value.trim();
+                if (trimValue.startsWith("{")) {
+                    for (Map.Entry<String, Object> item: BasicJson.parseMap(trimValue).entrySet()) {
+                        map.put(item.getKey(), item.getValue()!=null?String.valueOf(item.getValue()):null);
+                    }
+                } else {
+                    for (String item: trimValue.split(",")) {
+                        int index = item.indexOf(':');
+                        if (index > 0) {
+                            map.put(item.substring(0, index).trim(), item.substring(index + 1).trim());
+                        }
+                    }
+                }
+            }
+            return Collections.unmodifiableMap(map);
+        }
+    }
+
+    /**
+     * typed view of conf value, immutable; parse fail will be thrown on read, same as Integer.valueOf etc
+     */
+    public static class TypedView {
+        private final String value;
+
+        private final boolean booleanValue;
+        private final boolean intValid;
+        private final int intValue;
+        private final boolean longValid;
+        private final long longValue;
+        private final boolean floatValid;
+        private final float floatValue;
+        private final boolean doubleValid;
+        private final double doubleValue;
+
+        private TypedView(String value) {
+            this.value = value;
+            this.booleanValue = Boolean.parseBoolean(value);
+
+            int intValue = 0;
+            boolean intValid = false;
+            long longValue = 0;
+            boolean longValid = false;
+            if (value != null) {
+                try {
+                    longValue = Long.parseLong(value);
+                    longValid = true;
+                    if (longValue >= Integer.MIN_VALUE && longValue <= Integer.MAX_VALUE) {
+                        intValue = (int) longValue;
+                        intValid = true;
+                    }
+                } catch (NumberFormatException e) {
+                    // not integer
+                }
+            }
+            this.intValue = intValue;
+            this.intValid = intValid;
+            this.longValue = longValue;
+            this.longValid = longValid;
+
+            float floatValue = 0;
+            boolean floatValid = false;
+            double doubleValue = 0;
+            boolean doubleValid = false;
+            if (value != null) {
+                try {
+                    doubleValue = Double.parseDouble(value);
+                    doubleValid = true;
+                    floatValue = Float.parseFloat(value);
+                    floatValid = true;
+                } catch (NumberFormatException e) {
+                    // not number
+                }
+            }
+            this.floatValue = floatValue;
+            this.floatValid = floatValid;
+            this.doubleValue = doubleValue;
+            this.doubleValid = doubleValid;
+        }
+
+        public boolean getBoolean() {
+            return booleanValue;
+        }
+
+        public short getShort() {
+            if (!intValid || intValue < Short.MIN_VALUE || intValue > Short.MAX_VALUE) {
+                return Short.parseShort(value);     // throw NumberFormatException
+            }
+            return (short) intValue;
+        }
+
+        public int getInt() {
+            if (!intValid) {
+                return Integer.parseInt(value);     // throw NumberFormatException
+            }
+            return intValue;
+        }
+
+        public long getLong() {
+            if (!longValid) {
+                return Long.parseLong(value);       // throw NumberFormatException
+            }
+            return longValue;
+        }
+
+        public float getFloat() {
+            if (!floatValid) {
+                return Float.parseFloat(value);     // throw NumberFormatException
+            }
+            return floatValue;
+        }
+
+        public double getDouble() {
+            if (!doubleValid) {
+                return Double.parseDouble(value);   // throw NumberFormatException
+            }
+            return doubleValue;
         }
     }
 
@@ -111,53 +307,160 @@ public class XxlConfLocalCacheConf {
     // ---------------------- util ----------------------
 
     /**
-     * refresh Cache And Mirror, with real-time minitor
+     * full refresh interval, as safety net of revision-based refresh
+     */
+    private static final long FULL_REFRESH_INTERVAL = 5 * 60 * 1000;
+    private static volatile long lastFullRefreshTime = System.currentTimeMillis();
+
+    /**
+     * last-seen revision, only conf changed since then will be refreshed; -1 means unknown
+     */
+    private static volatile long lastRevision = -1;
+
+    /**
+     * keys set since last successful sync (first use, or stale mirror), find all on next refresh;
+     * revision-based refresh only returns conf changed since last revision, never the unchanged value of a new key
+     */
+    private static final Set<String> pendingKeys = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+
+    /**
+     * stream fail, fall back to monitor for a while
+     */
+    private static final long STREAM_RETRY_INTERVAL = 5 * 60 * 1000;
+    private static volatile long streamRetryTime = 0;
+
+    /**
+     * fail retry backoff, exponential with jitter: clients failed together (such as admin restart) retry at different time
+     */
+    private static final long RETRY_BACKOFF_BASE = 1000;
+    private static final long RETRY_BACKOFF_MAX = 30 * 1000;
+    private static int retryFailCount = 0;      // continuous fail count, refresh thread only
+
+    private static long parseRetryBackoff(int failCount) {
+        long backoff = Math.min(RETRY_BACKOFF_MAX, RETRY_BACKOFF_BASE << Math.min(failCount, 16));
+        return backoff/2 + ThreadLocalRandom.current().nextLong(backoff/2 + 1);
+    }
+
+    /**
+     * refresh Cache And Mirror, with real-time stream or minitor
      */
     private static void refreshCacheAndMirror() throws InterruptedException{
 
-        if (localCacheRepository.size()==0) {
+        Set<String> cacheKeys = new HashSet<String>(localCacheRepository.keySet());     // copy, new conf of first use put in place
+        if (cacheKeys.size()==0) {
             TimeUnit.SECONDS.sleep(3);
             return;
         }
 
-        // monitor
-        boolean monitorRet = XxlConfRemoteConf.monitor(localCacheRepository.keySet());
-
-        // avoid fail-retry request too quick
-        if (!monitorRet){
-            TimeUnit.SECONDS.sleep(10);
+        // stream: conf change pushed and applied in stream, until closed
+        boolean streamed = false;
+        if (System.currentTimeMillis() >= streamRetryTime) {
+            streamed = streamCacheAndMirror(cacheKeys);
+            if (!streamed) {
+                streamRetryTime = System.currentTimeMillis() + STREAM_RETRY_INTERVAL;
+            }
         }
 
-        // refresh cache: remote > cache
-        Set<String> keySet = localCacheRepository.keySet();
-        if (keySet.size() > 0) {
-
-            Map<String, String> remoteDataMap = XxlConfRemoteConf.find(keySet);
-            if (remoteDataMap!=null && remoteDataMap.size()>0) {
-                for (String remoteKey:remoteDataMap.keySet()) {
-                    String remoteData = remoteDataMap.get(remoteKey);
+        // monitor, stream not available; changed conf inline, applied without find
+        boolean findRequired = false;
+        if (!streamed) {
+            XxlConfDataVO monitorConf = XxlConfRemoteConf.monitor(cacheKeys, lastRevision);
+            if (monitorConf!=null && monitorConf.getData()!=null) {
+                refreshCache(monitorConf);
+            } else {
+                findRequired = true;
+            }
 
-                    CacheNode existNode = localCacheRepository.get(remoteKey);
-                    if (existNode!=null && existNode.getValue()!=null && existNode.getValue().equals(remoteData)) {
-                        logger.debug(">>>>>>>>>> xxl-conf: RELOAD unchange-pass [{}].", remoteKey);
-                    } else {
-                        set(remoteKey, remoteData, SET_TYPE.RELOAD );
-                    }
+            // avoid fail-retry request too quick, backoff with jitter
+            if (monitorConf == null){
+                TimeUnit.MILLISECONDS.sleep(parseRetryBackoff(retryFailCount++));
+            } else {
+                retryFailCount = 0;
+            }
+        } else {
+            retryFailCount = 0;
+        }
 
+        // refresh: monitor fail or value not inline; all conf when full refresh interval reached
+        Set<String> keySet = new HashSet<String>(localCacheRepository.keySet());     // new conf may be set during monitor
+        Set<String> pendingSnapshot = new HashSet<>(pendingKeys);
+        boolean fullRefresh = System.currentTimeMillis() - lastFullRefreshTime >= FULL_REFRESH_INTERVAL;
+        if (findRequired || fullRefresh) {
+
+            XxlConfDataVO remoteConf = XxlConfRemoteConf.find(keySet, fullRefresh?-1:lastRevision);
+            if (fullRefresh) {
+                lastFullRefreshTime = System.currentTimeMillis();
+                if (remoteConf != null) {
+                    pendingKeys.removeAll(pendingSnapshot);
                 }
             }
+            refreshCache(remoteConf);
+        }
 
+        // refresh pending keys: find all, revision not refreshed (other keys not included)
+        if (!fullRefresh && pendingSnapshot.size() > 0) {
+            XxlConfDataVO pendingConf = XxlConfRemoteConf.find(pendingSnapshot, -1);
+            if (pendingConf != null) {
+                pendingKeys.removeAll(pendingSnapshot);
+                if (pendingConf.getData()!=null && pendingConf.getData().size()>0) {
+                    setBatch(pendingConf.getData(), SET_TYPE.RELOAD );
+                }
+            }
         }
 
         // refresh mirror: cache > mirror
+        refreshMirror();
+
+        logger.debug(">>>>>>>>>> xxl-conf, refreshCacheAndMirror success.");
+    }
+
+    /**
+     * stream conf change, until: closed by admin, new conf set (re-subscribe with new keys), full refresh interval reached
+     *
+     * @param keySet
+     * @return  false when stream not available
+     */
+    private static boolean streamCacheAndMirror(final Set<String> keySet) {
+        return XxlConfRemoteConf.stream(keySet, lastRevision, new XxlConfRemoteConf.ConfStreamListener() {
+            @Override
+            public boolean isActive() {
+                return !refreshThreadStop
+                        && localCacheRepository.size() == keySet.size()
+                        && System.currentTimeMillis() - lastFullRefreshTime < FULL_REFRESH_INTERVAL;
+            }
+
+            @Override
+            public void onConf(XxlConfDataVO dataVO) {
+                refreshCache(dataVO);
+                refreshMirror();
+            }
+        });
+    }
+
+    /**
+     * refresh cache: remote > cache, changed conf of this cycle reload as one batch
+     *
+     * @param remoteConf
+     */
+    private static void refreshCache(XxlConfDataVO remoteConf) {
+        Map<String, String> remoteDataMap = remoteConf!=null?remoteConf.getData():null;
+        if (remoteDataMap!=null && remoteDataMap.size()>0) {
+            setBatch(remoteDataMap, SET_TYPE.RELOAD );
+        }
+
+        // refresh revision, never go back (admin node may lag behind)
+        if (remoteConf!=null && remoteConf.getRevision() > lastRevision) {
+            lastRevision = remoteConf.getRevision();
+        }
+    }
+
+    private static void refreshMirror() {
         Map<String, String> mirrorConfData = new HashMap<>();
-        for (String key: keySet) {
-            CacheNode existNode = localCacheRepository.get(key);
-            mirrorConfData.put(key, existNode.getValue()!=null?existNode.getValue():"");
+        for (Map.Entry<String, CacheNode> item: localCacheRepository.entrySet()) {
+            String value = item.getValue().getValue();
+            mirrorConfData.put(item.getKey(), value!=null?value:"");
         }
         XxlConfMirrorConf.writeConfMirror(mirrorConfData);
-
-        logger.debug(">>>>>>>>>> xxl-conf, refreshCacheAndMirror success.");
     }
 
 
@@ -170,16 +473,26 @@ public class XxlConfLocalCacheConf {
     }
 
     /**
-     * set conf (invoke listener)
+     * set conf of first use, put in place (invoke listener)
      *
      * @param key
      * @param value
      * @return
      */
     private static void set(String key, String value, SET_TYPE optType) {
-        localCacheRepository.put(key, new CacheNode(value));
+        synchronized (localCacheWriteLock) {
+            localCacheRepository.put(key, new CacheNode(value));
+        }
+        if (optType == SET_TYPE.SET) {
+            pendingKeys.add(key);
+        }
         logger.info(">>>>>>>>>> xxl-conf: {}: [{}={}]", optType, key, value);
 
+        // refresh handle in place
+        if (optType != SET_TYPE.PRELOAD) {
+            XxlConfHandleFactory.onChange(key);
+        }
+
         // value updated, invoke listener
         if (optType == SET_TYPE.RELOAD) {
             XxlConfListenerFactory.onChange(key, value);
@@ -191,6 +504,53 @@ public class XxlConfLocalCacheConf {
         }
     }
 
+    /**
+     * set conf batch, only changed conf; cache swapped at once (invoke listener for each key, then batch listener once)
+     *
+     * @param confData
+     * @param optType   PRELOAD or RELOAD
+     */
+    private static void setBatch(Map<String, String> confData, SET_TYPE optType) {
+        Map<String, String> oldValues = new HashMap<>();
+        Map<String, String> newValues = new HashMap<>();
+
+        synchronized (localCacheWriteLock) {
+            ConcurrentMap<String, CacheNode> newRepository = null;
+            for (Map.Entry<String, String> item: confData.entrySet()) {
+                CacheNode existNode = localCacheRepository.get(item.getKey());
+                if (existNode!=null && existNode.getValue()!=null && existNode.getValue().equals(item.getValue())) {
+                    logger.debug(">>>>>>>>>> xxl-conf: {} unchange-pass [{}].", optType, item.getKey());
+                    continue;
+                }
+
+                if (newRepository == null) {
+                    newRepository = new ConcurrentHashMap<String, CacheNode>(localCacheRepository);
+                }
+                newRepository.put(item.getKey(), new CacheNode(item.getValue()));
+                oldValues.put(item.getKey(), existNode!=null?existNode.getValue():null);
+                newValues.put(item.getKey(), item.getValue());
+            }
+            if (newRepository == null) {
+                return;
+            }
+            localCacheRepository = newRepository;
+        }
+        logger.info(">>>>>>>>>> xxl-conf: {}: {}", optType, newValues);
+
+        if (optType == SET_TYPE.RELOAD) {
+            // refresh handle in place
+            for (String key: newValues.keySet()) {
+                XxlConfHandleFactory.onChange(key);
+            }
+
+            // value updated, invoke listener
+            for (Map.Entry<String, String> item: newValues.entrySet()) {
+                XxlConfListenerFactory.onChange(item.getKey(), item.getValue());
+            }
+            XxlConfListenerFactory.onBatchChange(oldValues, newValues);
+        }
+    }
+
     /**
      * get conf
      *
@@ -198,11 +558,36 @@ public class XxlConfLocalCacheConf {
      * @return
      */
     private static CacheNode get(String key) {
-        if (localCacheRepository.containsKey(key)) {
-            CacheNode cacheNode = localCacheRepository.get(key);
-            return cacheNode;
+        return localCacheRepository.get(key);
+    }
+
+    /**
+     * peek conf node, no load, no stat
+     *
+     * @param key
+     * @return
+     */
+    public static CacheNode peekNode(String key) {
+        Map<String, CacheNode> cacheSnapshot = localCacheRepository;
+        return cacheSnapshot!=null?cacheSnapshot.get(key):null;
+    }
+
+    /**
+     * get conf of keys from one cache snapshot, never a half-applied batch; no load
+     *
+     * @param keys
+     * @return  cached conf only
+     */
+    public static Map<String, String> getAll(Collection<String> keys) {
+        Map<String, CacheNode> cacheSnapshot = localCacheRepository;
+        Map<String, String> result = new HashMap<>();
+        for (String key: keys) {
+            CacheNode cacheNode = cacheSnapshot.get(key);
+            if (cacheNode != null) {
+                result.put(key, cacheNode.getValue());
+            }
         }
-        return null;
+        return result;
     }
 
     /**
@@ -231,6 +616,136 @@ public class XxlConfLocalCacheConf {
     }*/
 
 
+    // ---------------------- miss policy ----------------------
+
+    public enum MISS_POLICY{
+        BLOCKING,               // find remote in caller thread
+        ASYNC_DEFAULT,          // return default value, find remote in background
+        BLOCKING_WITH_BUDGET    // find remote in background, caller wait at most budget ms
+    }
+
+    private static volatile MISS_POLICY missPolicy = MISS_POLICY.BLOCKING;
+    private static volatile long missBudget = 100;
+
+    public static void setMissPolicy(MISS_POLICY missPolicy, long missBudget) {
+        if (missPolicy != null) {
+            XxlConfLocalCacheConf.missPolicy = missPolicy;
+        }
+        if (missBudget > 0) {
+            XxlConfLocalCacheConf.missBudget = missBudget;
+        }
+    }
+
+    /**
+     * hit/miss stat, for each miss policy
+     */
+    private static final Map<MISS_POLICY, AtomicLong> hitCount = new EnumMap<MISS_POLICY, AtomicLong>(MISS_POLICY.class);
+    private static final Map<MISS_POLICY, AtomicLong> missCount = new EnumMap<MISS_POLICY, AtomicLong>(MISS_POLICY.class);
+    static {
+        for (MISS_POLICY item: MISS_POLICY.values()) {
+            hitCount.put(item, new AtomicLong());
+            missCount.put(item, new AtomicLong());
+        }
+    }
+
+    /**
+     * stat, like "BLOCKING.hit" -> 100, "BLOCKING.miss" -> 2
+     *
+     * @return
+     */
+    public static Map<String, Long> stat() {
+        Map<String, Long> stat = new LinkedHashMap<>();
+        for (MISS_POLICY item: MISS_POLICY.values()) {
+            stat.put(item.name() + ".hit", hitCount.get(item).get());
+            stat.put(item.name() + ".miss", missCount.get(item).get());
+        }
+        return stat;
+    }
+
+    /**
+     * background remote find
+     */
+    private static ExecutorService missLoadingExecutor = Executors.newFixedThreadPool(4, new ThreadFactory() {
+        private final AtomicInteger threadIndex = new AtomicInteger();
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread thread = new Thread(r, "xxl-conf, miss loading thread-" + threadIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    });
+
+    /**
+     * in-flight remote find, key -> future
+     */
+    private static ConcurrentHashMap<String, FutureTask<String>> missLoadingRepository = new ConcurrentHashMap<String, FutureTask<String>>();
+
+    /**
+     * load missing conf, only one thread find remote and set cache (invoke refresh interrupt once), others share the same future
+     *
+     * @param key
+     * @param async     run in background, or in caller thread
+     * @return
+     */
+    private static FutureTask<String> loadMissingConf(final String key, boolean async) {
+        FutureTask<String> loadTask = missLoadingRepository.get(key);
+        if (loadTask != null) {
+            return loadTask;
+        }
+
+        final FutureTask<String> newTask = new FutureTask<String>(new Callable<String>() {
+            @Override
+            public String call() throws Exception {
+                // loaded by former flight
+                CacheNode cacheNode = get(key);
+                if (cacheNode != null) {
+                    return cacheNode.getValue();
+                }
+
+                String remoteData = null;
+                try {
+                    remoteData = XxlConfRemoteConf.find(key);
+                } catch (Exception e) {
+                    logger.error(e.getMessage(), e);
+                }
+
+                // remote fail, not cached (retry on next miss); conf not exists responsed as empty and cached
+                if (remoteData == null) {
+                    return null;
+                }
+                set(key, remoteData, SET_TYPE.SET );
+                return remoteData;
+            }
+        });
+
+        loadTask = missLoadingRepository.putIfAbsent(key, newTask);
+        if (loadTask != null) {
+            return loadTask;
+        }
+
+        Runnable loadRunnable = new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    newTask.run();
+                } finally {
+                    missLoadingRepository.remove(key, newTask);
+                }
+            }
+        };
+        if (async) {
+            try {
+                missLoadingExecutor.execute(loadRunnable);
+            } catch (RejectedExecutionException e) {
+                loadRunnable.run();
+            }
+        } else {
+            loadRunnable.run();
+        }
+        return newTask;
+    }
+
+
     // ---------------------- api ----------------------
 
     /**
@@ -241,22 +756,34 @@ public class XxlConfLocalCacheConf {
      * @return
      */
     public static String get(String key, String defaultVal) {
+        MISS_POLICY policy = missPolicy;
 
         // level 1: local cache
         XxlConfLocalCacheConf.CacheNode cacheNode = XxlConfLocalCacheConf.get(key);
         if (cacheNode != null) {
+            hitCount.get(policy).incrementAndGet();
             return cacheNode.getValue();
         }
+        missCount.get(policy).incrementAndGet();
 
-        // level 2	(get-and-watch, add-local-cache)
+        // level 2	(get-and-watch, add-local-cache), single-flight: concurrent miss of same key share one remote find
         String remoteData = null;
         try {
-            remoteData = XxlConfRemoteConf.find(key);
+            if (policy == MISS_POLICY.ASYNC_DEFAULT) {
+                loadMissingConf(key, true);
+            } else if (policy == MISS_POLICY.BLOCKING_WITH_BUDGET) {
+                remoteData = loadMissingConf(key, true).get(missBudget, TimeUnit.MILLISECONDS);
+            } else {
+                remoteData = loadMissingConf(key, false).get();
+            }
+        } catch (TimeoutException e) {
+            logger.warn(">>>>>>>>>> xxl-conf: miss loading exceed budget [{}ms], return default value. key={}", missBudget, key);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
         } catch (Exception e) {
             logger.error(e.getMessage(), e);
         }
 
-        set(key, remoteData, SET_TYPE.SET );		// support cache null value
         if (remoteData != null) {
             return remoteData;
         }
@@ -264,4 +791,87 @@ public class XxlConfLocalCacheConf {
         return defaultVal;
     }
 
+    /**
+     * get conf node, load by miss policy when not cached
+     *
+     * @param key
+     * @return  null when conf not exists or not loaded yet
+     */
+    public static CacheNode getNode(String key) {
+        CacheNode cacheNode = get(key);
+        if (cacheNode != null) {
+            hitCount.get(missPolicy).incrementAndGet();
+            return cacheNode;
+        }
+
+        get(key, null);
+        return get(key);
+    }
+
+    /**
+     * get conf async, never block caller thread
+     *
+     * @param key
+     * @param defaultVal
+     * @return
+     */
+    public static Future<String> getAsync(String key, final String defaultVal) {
+        MISS_POLICY policy = missPolicy;
+
+        // level 1: local cache
+        XxlConfLocalCacheConf.CacheNode cacheNode = XxlConfLocalCacheConf.get(key);
+        if (cacheNode != null) {
+            hitCount.get(policy).incrementAndGet();
+            final String value = cacheNode.getValue();
+            FutureTask<String> doneTask = new FutureTask<String>(new Callable<String>() {
+                @Override
+                public String call() throws Exception {
+                    return value;
+                }
+            });
+            doneTask.run();
+            return new DefaultValueFuture(doneTask, defaultVal);
+        }
+        missCount.get(policy).incrementAndGet();
+
+        // level 2, background
+        return new DefaultValueFuture(loadMissingConf(key, true), defaultVal);
+    }
+
+    /**
+     * future, return default value when conf value null
+     */
+    private static class DefaultValueFuture implements Future<String> {
+        private final Future<String> future;
+        private final String defaultVal;
+
+        public DefaultValueFuture(Future<String> future, String defaultVal) {
+            this.future = future;
+            this.defaultVal = defaultVal;
+        }
+
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            return false;      // shared by other callers, never cancel
+        }
+        @Override
+        public boolean isCancelled() {
+            return false;
+        }
+        @Override
+        public boolean isDone() {
+            return future.isDone();
+        }
+        @Override
+        public String get() throws InterruptedException, ExecutionException {
+            String value = future.get();
+            return value!=null?value:defaultVal;
+        }
+        @Override
+        public String get(long timeout, TimeUnit unit) throws InterruptedException, ExecutionException, TimeoutException {
+            String value = future.get(timeout, unit);
+            return value!=null?value:defaultVal;
+        }
+    }
+
 }
@@ -1,13 +1,20 @@
 package com.xxl.conf.core.core;
 
 import com.xxl.conf.core.exception.XxlConfException;
+import com.xxl.conf.core.model.XxlConfDataVO;
 import com.xxl.conf.core.model.XxlConfParamVO;
-import com.xxl.conf.core.util.BasicHttpUtil;
+import com.xxl.conf.core.transport.XxlConfStreamTransport;
+import com.xxl.conf.core.transport.XxlConfTransport;
+import com.xxl.conf.core.transport.XxlConfTransportException;
+import com.xxl.conf.core.transport.impl.HttpXxlConfTransport;
+import com.xxl.conf.core.util.KeyDigestUtil;
 import com.xxl.conf.core.util.json.BasicJson;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * @author xuxueli 2018-11-28
@@ -20,7 +27,51 @@ public class XxlConfRemoteConf {
     private static String env;
     private static String accessToken;
 
-    private static List<String> adminAddressArr = null;
+    private static XxlConfAdminRouter adminRouter = null;
+
+    /**
+     * transport, pluggable
+     */
+    private static volatile XxlConfTransport transport = new HttpXxlConfTransport();
+
+    public static void setTransport(XxlConfTransport transport) {
+        if (transport != null) {
+            XxlConfRemoteConf.transport = transport;
+        }
+    }
+
+    /**
+     * subscribe by event stream when transport supports, fall back to long polling
+     */
+    private static volatile boolean streamEnable = true;
+
+    public static void setStreamEnable(boolean streamEnable) {
+        XxlConfRemoteConf.streamEnable = streamEnable;
+    }
+
+    /**
+     * monitor by session, keys registered once on each admin node and referenced by session id
+     */
+    private static volatile boolean sessionEnable = true;
+
+    public static void setSessionEnable(boolean sessionEnable) {
+        XxlConfRemoteConf.sessionEnable = sessionEnable;
+    }
+
+    /**
+     * hedged find, send the same find to another admin node when no reply after delay, the first reply wins
+     *
+     * @param hedgeDelay    ms, <=0 will disable hedge (default)
+     * @param hedgeBudget   max fraction of hedged find, such as 0.1
+     */
+    public static void setHedge(long hedgeDelay, double hedgeBudget) {
+        XxlConfRemoteConf.hedgeDelay = hedgeDelay;
+        XxlConfRemoteConf.hedgeBudget = Math.max(0, Math.min(1, hedgeBudget));
+    }
+
+    public static void destroy() {
+        transport.destroy();
+    }
 
     public static void init(String adminAddress, String env, String accessToken) {
 
@@ -39,44 +90,212 @@ public class XxlConfRemoteConf {
 
 
         // parse
-        XxlConfRemoteConf.adminAddressArr = new ArrayList<>();
-        if (adminAddress.contains(",")) {
-            XxlConfRemoteConf.adminAddressArr.add(adminAddress);
-        } else {
-            XxlConfRemoteConf.adminAddressArr.addAll(Arrays.asList(adminAddress.split(",")));
+        XxlConfAdminRouter adminRouter = new XxlConfAdminRouter(adminAddress);
+        if (adminRouter.getNodes().size() == 0) {
+            throw new XxlConfException("xxl-conf adminAddress invalid["+ adminAddress +"]");
         }
+        XxlConfRemoteConf.adminRouter = adminRouter;
+
+    }
 
+    /**
+     * admin nodes, with health and latency
+     *
+     * @return
+     */
+    public static List<XxlConfAdminRouter.Node> getAdminNodes() {
+        return adminRouter!=null?adminRouter.getNodes():Collections.<XxlConfAdminRouter.Node>emptyList();
     }
 
 
     // ---------------------- rest api ----------------------
 
+    // timeout, ms
+    private static final int CONNECT_TIMEOUT = 3 * 1000;
+    private static final int FIND_READ_TIMEOUT = 5 * 1000;
+    private static final int MONITOR_READ_TIMEOUT = 60 * 1000;
+    private static final int STREAM_READ_TIMEOUT = 60 * 1000;        // heartbeat 10s
+
     /**
-     * get and valid
+     * get and valid, route to admin node and fail over to others when request fail
      *
-     * @param url
+     * @param uri
      * @param requestBody
-     * @param timeout
+     * @param readTimeout
+     * @param sampled       true will sample latency and inflight for routing, false for long polling
      * @return
      */
-    private static Map<String, Object> getAndValid(String url, String requestBody, int timeout){
+    private static Map<String, Object> getAndValid(String uri, String requestBody, int readTimeout, boolean sampled){
 
         // resp json
-        String respJson = BasicHttpUtil.postBody(url, requestBody, timeout);
+        String respJson = null;
+        if (sampled && hedgeDelay>0 && adminRouter.getNodes().size()>1) {
+            respJson = postHedged(uri, requestBody, readTimeout);
+        } else {
+            Set<XxlConfAdminRouter.Node> triedNodes = new HashSet<>();
+            XxlConfAdminRouter.Node node;
+            while (respJson==null && (node = adminRouter.select(triedNodes)) != null) {
+                triedNodes.add(node);
+                respJson = post(node, uri, requestBody, readTimeout, sampled);
+            }
+        }
         if (respJson == null) {
             return null;
         }
 
         // parse obj
-        Map<String, Object> respObj = BasicJson.parseMap(respJson);
-        int code = Integer.valueOf(String.valueOf(respObj.get("code")));
-        if (code != 200) {
-            logger.info("request fail, msg={}", (respObj.containsKey("msg")?respObj.get("msg"):respJson) );
+        return valid(BasicJson.parseMap(respJson));
+    }
+
+    private static int parseCode(Map<String, Object> respObj) {
+        return Integer.valueOf(String.valueOf(respObj.get("code")));
+    }
+
+    private static Map<String, Object> valid(Map<String, Object> respObj){
+        if (parseCode(respObj) != 200) {
+            logger.info("request fail, msg={}", (respObj.containsKey("msg")?respObj.get("msg"):respObj) );
             return null;
         }
         return respObj;
     }
 
+    /**
+     * post to admin node, and report result to router
+     */
+    private static String post(XxlConfAdminRouter.Node node, String uri, String requestBody, int readTimeout, boolean sampled){
+        long start = System.currentTimeMillis();
+        if (sampled) {
+            node.onStart();
+        }
+        String respJson = null;
+        try {
+            respJson = transport.post(node.getAddress() + uri, requestBody, CONNECT_TIMEOUT, readTimeout);
+        } catch (XxlConfTransportException e) {
+            // rejected by admin or local error, not a node fail
+            logger.info("request fail, msg={}", e.getMessage());
+            node.onIgnore(sampled);
+            return null;
+        }
+        if (respJson != null) {
+            node.onSuccess(sampled?(System.currentTimeMillis()-start):-1);
+        } else {
+            node.onFail(sampled);
+        }
+        return respJson;
+    }
+
+
+    // ---------------------- hedge ----------------------
+
+    private static final double HEDGE_TOKEN_MAX = 10;       // max hedge burst, such as cold start
+
+    private static volatile long hedgeDelay = 0;
+    private static volatile double hedgeBudget = 0.1;
+    private static double hedgeTokens = HEDGE_TOKEN_MAX;    // each find earns "budget" token, each hedge costs one
+
+    private static ExecutorService hedgeExecutor = new ThreadPoolExecutor(0, 32, 60L, TimeUnit.SECONDS,
+            new SynchronousQueue<Runnable>(), new ThreadFactory() {
+        private final AtomicInteger threadIndex = new AtomicInteger();
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread thread = new Thread(r, "xxl-conf, hedge find thread-" + threadIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    });
+
+    private static synchronized void earnHedgeToken() {
+        hedgeTokens = Math.min(HEDGE_TOKEN_MAX, hedgeTokens + hedgeBudget);
+    }
+
+    private static synchronized boolean acquireHedgeToken() {
+        if (hedgeTokens >= 1) {
+            hedgeTokens -= 1;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * post async, result offered to queue (null value wrapped as empty array when fail)
+     */
+    private static boolean postAsync(final XxlConfAdminRouter.Node node, final String uri, final String requestBody, final int readTimeout,
+                                     final BlockingQueue<String[]> resultQueue) {
+        try {
+            hedgeExecutor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    String respJson = null;
+                    try {
+                        respJson = post(node, uri, requestBody, readTimeout, true);
+                    } finally {
+                        resultQueue.offer(respJson!=null?new String[]{respJson}:new String[0]);
+                    }
+                }
+            });
+            return true;
+        } catch (RejectedExecutionException e) {
+            logger.debug(">>>>>>>>>> xxl-conf, hedge find rejected.");
+            return false;
+        }
+    }
+
+    /**
+     * post with hedge: no reply after delay, send to another node (within budget); fail over when request fail; the first reply wins
+     */
+    private static String postHedged(String uri, String requestBody, int readTimeout){
+        earnHedgeToken();
+
+        Set<XxlConfAdminRouter.Node> triedNodes = new HashSet<>();
+        BlockingQueue<String[]> resultQueue = new LinkedBlockingQueue<>();
+        int pending = 0;
+        boolean hedged = false;
+
+        try {
+            while (true) {
+                // send, primary or fail over
+                if (pending == 0) {
+                    XxlConfAdminRouter.Node node = adminRouter.select(triedNodes);
+                    if (node == null) {
+                        return null;
+                    }
+                    triedNodes.add(node);
+                    if (!postAsync(node, uri, requestBody, readTimeout, resultQueue)) {
+                        return post(node, uri, requestBody, readTimeout, true);     // executor busy, no hedge
+                    }
+                    pending++;
+                }
+
+                // wait, hedge delay first
+                String[] result = resultQueue.poll(hedged?(CONNECT_TIMEOUT+readTimeout):hedgeDelay, TimeUnit.MILLISECONDS);
+                if (result == null) {
+                    if (hedged) {
+                        return null;
+                    }
+                    hedged = true;
+                    if (acquireHedgeToken()) {
+                        XxlConfAdminRouter.Node node = adminRouter.select(triedNodes);
+                        if (node!=null) {
+                            triedNodes.add(node);
+                            if (postAsync(node, uri, requestBody, readTimeout, resultQueue)) {
+                                pending++;
+                            }
+                        }
+                    }
+                    continue;
+                }
+                pending--;
+
+                if (result.length > 0) {
+                    return result[0];
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+    }
+
 
     /**
      * find
@@ -85,29 +304,96 @@ public class XxlConfRemoteConf {
      * @return
      */
     public static Map<String, String> find(Set<String> keys) {
-        for (String adminAddressUrl: XxlConfRemoteConf.adminAddressArr) {
 
-            // url + param
-            String url = adminAddressUrl + "/conf/find";
+        // param
+        XxlConfParamVO paramVO = new XxlConfParamVO();
+        paramVO.setAccessToken(accessToken);
+        paramVO.setEnv(env);
+        paramVO.setKeys(new ArrayList<String>(keys));
+
+        String paramsJson = BasicJson.toJson(paramVO);
+
+        // get and valid
+        Map<String, Object> respObj = getAndValid("/conf/find", paramsJson, FIND_READ_TIMEOUT, true);
+
+        // parse
+        if (respObj!=null && respObj.containsKey("data")) {
+            return respObj.get("data") instanceof Map?parseStringMap((Map<?, ?>) respObj.get("data")):null;
+        }
+        return null;
+    }
+
+    /**
+     * find conf changed since revision
+     *
+     * @param keys
+     * @param revision  last-seen revision, -1 will find all
+     * @return
+     */
+    public static XxlConfDataVO find(Set<String> keys, long revision) {
+
+        // param
+        XxlConfParamVO paramVO = new XxlConfParamVO();
+        paramVO.setAccessToken(accessToken);
+        paramVO.setEnv(env);
+        paramVO.setKeys(new ArrayList<String>(keys));
+        paramVO.setRevision(revision);
 
-            XxlConfParamVO paramVO = new XxlConfParamVO();
-            paramVO.setAccessToken(accessToken);
-            paramVO.setEnv(env);
-            paramVO.setKeys(new ArrayList<String>(keys));
+        String paramsJson = BasicJson.toJson(paramVO);
 
-            String paramsJson = BasicJson.toJson(paramVO);
+        // get and valid
+        Map<String, Object> respObj = getAndValid("/conf/find", paramsJson, FIND_READ_TIMEOUT, true);
 
-            // get and valid
-            Map<String, Object> respObj = getAndValid(url, paramsJson, 5);
+        // parse
+        if (respObj!=null && respObj.get("data") instanceof Map) {
+            return parseDataVO((Map<?, ?>) respObj.get("data"));
+        }
+        return null;
+    }
 
-            // parse
-            if (respObj!=null && respObj.containsKey("data")) {
-                Map<String, String> data = (Map<String, String>) respObj.get("data");
-                return data;
+    /**
+     * parse find result: conf changed since revision; or key-value snapshot without revision (legacy admin), revision -1
+     */
+    private static XxlConfDataVO parseDataVO(Map<?, ?> dataObj) {
+        Map<String, String> data = new HashMap<>();
+        Map<String, Long> revisions = new HashMap<>();
+
+        // legacy admin, key -> value
+        if (!(dataObj.get("revision") instanceof Number)) {
+            XxlConfDataVO dataVO = new XxlConfDataVO();
+            dataVO.setRevision(-1);
+            dataVO.setData(parseStringMap(dataObj));
+            dataVO.setRevisions(revisions);
+            return dataVO;
+        }
+
+        if (dataObj.get("data") instanceof Map) {
+            data = parseStringMap((Map<?, ?>) dataObj.get("data"));
+        }
+        if (dataObj.get("revisions") instanceof Map) {
+            for (Map.Entry<?, ?> item: ((Map<?, ?>) dataObj.get("revisions")).entrySet()) {
+                if (item.getValue() instanceof Number) {
+                    revisions.put(String.valueOf(item.getKey()), ((Number) item.getValue()).longValue());
+                }
             }
         }
 
-        return null;
+        XxlConfDataVO dataVO = new XxlConfDataVO();
+        dataVO.setRevision(dataObj.get("revision") instanceof Number?((Number) dataObj.get("revision")).longValue():-1);
+        dataVO.setData(data);
+        dataVO.setRevisions(revisions);
+        return dataVO;
+    }
+
+    /**
+     * parse key -> value, copy with value as string (null kept)
+     */
+    private static Map<String, String> parseStringMap(Map<?, ?> dataObj) {
+        Map<String, String> data = new HashMap<>();
+        for (Map.Entry<?, ?> item: dataObj.entrySet()) {
+            data.put(String.valueOf(item.getKey()), item.getValue()!=null?String.valueOf(item.getValue()):null);
+        }
+        return data;
     }
 
     public static String find(String key) {
@@ -123,28 +409,249 @@ public class XxlConfRemoteConf {
      * monitor
      *
      * @param keys
-     * @return
+     * @param revision  last-seen revision, response immediately if conf changed since then
+     * @return  changed conf inline (same as find result since revision), empty data when monitor timeout;
+     *          data null when value not inline (legacy admin: data null or updated key list), find required;
+     *          null when monitor fail
      */
-    public static boolean monitor(Set<String> keys) {
+    public static XxlConfDataVO monitor(Set<String> keys, long revision) {
+
+        // route and fail over, by session; long polling not sampled
+        Map<String, Object> respObj = null;
+        Set<XxlConfAdminRouter.Node> triedNodes = new HashSet<>();
+        XxlConfAdminRouter.Node node;
+        while (respObj==null && (node = adminRouter.select(triedNodes)) != null) {
+            triedNodes.add(node);
+            respObj = postBySession(node, "/conf/monitor", keys, revision, MONITOR_READ_TIMEOUT);
+        }
+        if (respObj != null) {
+            respObj = valid(respObj);
+        }
 
-        for (String adminAddressUrl: XxlConfRemoteConf.adminAddressArr) {
+        // parse: inline changed conf
+        if (respObj!=null && respObj.get("data") instanceof Map) {
+            return parseDataVO((Map<?, ?>) respObj.get("data"));
+        }
 
-            // url + param
-            String url = adminAddressUrl + "/conf/monitor";
+        // parse: legacy admin, data null (updated or timeout, not told) or updated key list; find all
+        if (respObj != null) {
+            XxlConfDataVO dataVO = new XxlConfDataVO();
+            dataVO.setRevision(-1);
+            dataVO.setData(null);
+            return dataVO;
+        }
+        return null;
+    }
 
-            XxlConfParamVO paramVO = new XxlConfParamVO();
-            paramVO.setAccessToken(accessToken);
-            paramVO.setEnv(env);
-            paramVO.setKeys(new ArrayList<String>(keys));
 
-            String paramsJson = BasicJson.toJson(paramVO);
+    // ---------------------- session ----------------------
 
-            // get and valid
-            Map<String, Object> respObj = getAndValid(url, paramsJson, 60);
+    private static final int SESSION_INVALID_CODE = 410;
+    private static final long SESSION_RETRY_INTERVAL = 5 * 60 * 1000;      // session not supported (legacy admin), retry later
 
-            return respObj!=null?true:false;
+    /**
+     * session registered on admin node
+     */
+    private static class Session {
+        private final String sessionId;         // null means not supported
+        private final Set<String> keys;
+        private final String digest;
+        private final long createTime;
+
+        public Session(String sessionId, Set<String> keys, String digest) {
+            this.sessionId = sessionId;
+            this.keys = keys;
+            this.digest = digest;
+            this.createTime = System.currentTimeMillis();
         }
-        return false;
+    }
+
+    private static ConcurrentMap<String, Session> sessionMap = new ConcurrentHashMap<>();     // admin address -> session
+
+    /**
+     * post by session of admin node, fall back to keys when session not available or invalid
+     *
+     * @return  resp obj not valid, null when request fail
+     */
+    private static Map<String, Object> postBySession(XxlConfAdminRouter.Node node, String uri, Set<String> keys, long revision, int readTimeout) {
+
+        XxlConfParamVO paramVO = new XxlConfParamVO();
+        paramVO.setAccessToken(accessToken);
+        paramVO.setEnv(env);
+        paramVO.setRevision(revision);
+
+        // by session
+        Session session = sessionEnable?session(node, keys):null;
+        if (session != null) {
+            paramVO.setSessionId(session.sessionId);
+            paramVO.setDigest(session.digest);
+
+            String respJson = post(node, uri, BasicJson.toJson(paramVO), readTimeout, false);
+            if (respJson == null) {
+                return null;
+            }
+            Map<String, Object> respObj = BasicJson.parseMap(respJson);
+            if (parseCode(respObj) != SESSION_INVALID_CODE) {
+                return respObj;
+            }
+
+            // session expired, re-register next time
+            sessionMap.remove(node.getAddress(), session);
+            paramVO.setSessionId(null);
+            paramVO.setDigest(null);
+        }
+
+        // by keys
+        paramVO.setKeys(new ArrayList<String>(keys));
+        String respJson = post(node, uri, BasicJson.toJson(paramVO), readTimeout, false);
+        return respJson!=null?BasicJson.parseMap(respJson):null;
+    }
+
+    /**
+     * session of admin node for keys; register, or update incrementally when keys changed
+     *
+     * @return  null when session not available
+     */
+    private static Session session(XxlConfAdminRouter.Node node, Set<String> keys) {
+        Session session = sessionMap.get(node.getAddress());
+        if (session != null) {
+            if (session.sessionId == null) {
+                if (System.currentTimeMillis() - session.createTime < SESSION_RETRY_INTERVAL) {
+                    return null;
+                }
+            } else if (session.keys.equals(keys)) {
+                return session;
+            }
+        }
+
+        // update incrementally, or register
+        Set<String> newKeys = new HashSet<>(keys);
+        XxlConfParamVO paramVO = new XxlConfParamVO();
+        paramVO.setAccessToken(accessToken);
+        paramVO.setEnv(env);
+        if (session!=null && session.sessionId!=null) {
+            List<String> addKeys = new ArrayList<>();
+            for (String key: newKeys) {
+                if (!session.keys.contains(key)) {
+                    addKeys.add(key);
+                }
+            }
+            List<String> removeKeys = new ArrayList<>();
+            for (String key: session.keys) {
+                if (!newKeys.contains(key)) {
+                    removeKeys.add(key);
+                }
+            }
+            paramVO.setSessionId(session.sessionId);
+            paramVO.setAddKeys(addKeys);
+            paramVO.setRemoveKeys(removeKeys);
+        } else {
+            paramVO.setKeys(new ArrayList<String>(newKeys));
+        }
+
+        String respJson = post(node, "/conf/session", BasicJson.toJson(paramVO), FIND_READ_TIMEOUT, true);
+        Map<String, Object> respObj = respJson!=null?BasicJson.parseMap(respJson):null;
+
+        // parse, digest must match (keys in sync)
+        Session newSession = null;
+        boolean updateFail = paramVO.getSessionId()!=null && respObj!=null && parseCode(respObj)==SESSION_INVALID_CODE;
+        if (respObj!=null && parseCode(respObj)==200 && respObj.get("data") instanceof Map) {
+            Map<?, ?> dataObj = (Map<?, ?>) respObj.get("data");
+            String digest = KeyDigestUtil.digest(newKeys);
+            if (dataObj.get("sessionId")!=null && digest.equals(dataObj.get("digest"))) {
+                newSession = new Session(String.valueOf(dataObj.get("sessionId")), newKeys, digest);
+            } else {
+                logger.info(">>>>>>>>>> xxl-conf, session digest not match, admin node [{}].", node.getAddress());
+                updateFail = paramVO.getSessionId() != null;
+            }
+        }
+
+        // update fail, session expired or keys out of sync; register
+        if (updateFail) {
+            sessionMap.remove(node.getAddress(), session);
+            return session(node, keys);
+        }
+
+        // not available, by keys and retry later
+        if (newSession == null) {
+            sessionMap.put(node.getAddress(), new Session(null, null, null));
+            return null;
+        }
+        sessionMap.put(node.getAddress(), newSession);
+        return newSession;
+    }
+
+    /**
+     * conf stream listener
+     */
+    public interface ConfStreamListener {
+
+        /**
+         * checked on each event and heartbeat, stream closed when inactive
+         *
+         * @return
+         */
+        public boolean isActive();
+
+        /**
+         * on conf changed, same as find result since revision
+         *
+         * @param dataVO
+         */
+        public void onConf(XxlConfDataVO dataVO);
+
+    }
+
+    /**
+     * stream, subscribe conf change since revision; block until stream closed by admin (timeout) or listener
+     *
+     * @param keys
+     * @param revision  last-seen revision, conf changed since then will be pushed first
+     * @param listener
+     * @return  false when stream disabled, not supported (transport or admin) or broken; fall back to monitor
+     */
+    public static boolean stream(Set<String> keys, long revision, final ConfStreamListener listener) {
+        if (!streamEnable || !(transport instanceof XxlConfStreamTransport)) {
+            return false;
+        }
+
+        // route, stream fail not counted as node fail (maybe not supported), falls back to monitor
+        final XxlConfAdminRouter.Node node = adminRouter.select(Collections.<XxlConfAdminRouter.Node>emptySet(), false);
+        if (node == null) {
+            return false;
+        }
+
+        // url + param
+        String url = node.getAddress() + "/conf/stream";
+
+        XxlConfParamVO paramVO = new XxlConfParamVO();
+        paramVO.setAccessToken(accessToken);
+        paramVO.setEnv(env);
+        paramVO.setKeys(new ArrayList<String>(keys));
+        paramVO.setRevision(revision);
+
+        String paramsJson = BasicJson.toJson(paramVO);
+
+        // stream and parse
+        final boolean[] streamFail = new boolean[]{false};
+        boolean ret = ((XxlConfStreamTransport) transport).stream(url, paramsJson, CONNECT_TIMEOUT, STREAM_READ_TIMEOUT, new XxlConfStreamTransport.StreamListener() {
+            @Override
+            public boolean isActive() {
+                return !streamFail[0] && listener.isActive();
+            }
+
+            @Override
+            public void onEvent(String event, String data) {
+                if ("conf".equals(event)) {
+                    node.onSuccess(-1);
+                    listener.onConf(parseDataVO(BasicJson.parseMap(data)));
+                } else if ("error".equals(event)) {
+                    logger.info("stream fail, msg={}", data);
+                    streamFail[0] = true;
+                }
+            }
+        });
+        return ret && !streamFail[0];
     }
 
 }
@@ -3,6 +3,7 @@ package com.xxl.conf.core.factory;
 import com.xxl.conf.core.core.XxlConfLocalCacheConf;
 import com.xxl.conf.core.core.XxlConfMirrorConf;
 import com.xxl.conf.core.core.XxlConfRemoteConf;
+import com.xxl.conf.core.exception.XxlConfException;
 import com.xxl.conf.core.listener.XxlConfListenerFactory;
 import com.xxl.conf.core.listener.impl.BeanRefreshXxlConfListener;
 
@@ -21,7 +22,20 @@ public class XxlConfBaseFactory {
 	 * @param env
 	 */
 	public static void init(String adminAddress, String env, String accessToken, String mirrorfile) {
+		init(adminAddress, env, accessToken, mirrorfile, null, 0);
+	}
+
+	/**
+	 * init
+	 *
+	 * @param adminAddress
+	 * @param env
+	 * @param missPolicy	conf miss policy, default BLOCKING
+	 * @param missBudget	max wait ms for BLOCKING_WITH_BUDGET
+	 */
+	public static void init(String adminAddress, String env, String accessToken, String mirrorfile, String missPolicy, long missBudget) {
 		// init
+		XxlConfLocalCacheConf.setMissPolicy(parseMissPolicy(missPolicy), missBudget);
 		XxlConfRemoteConf.init(adminAddress, env, accessToken);	// init remote util
 		XxlConfMirrorConf.init(mirrorfile);			// init mirror util
 		XxlConfLocalCacheConf.init();				// init cache + thread, cycle refresh + monitor
@@ -30,11 +44,23 @@ public class XxlConfBaseFactory {
 
 	}
 
+	private static XxlConfLocalCacheConf.MISS_POLICY parseMissPolicy(String missPolicy) {
+		if (missPolicy==null || missPolicy.trim().length()==0) {
+			return null;
+		}
+		try {
+			return XxlConfLocalCacheConf.MISS_POLICY.valueOf(missPolicy.trim().toUpperCase());
+		} catch (IllegalArgumentException e) {
+			throw new XxlConfException("xxl-conf missPolicy invalid, missPolicy=" + missPolicy);
+		}
+	}
+
 	/**
 	 * destory
 	 */
 	public static void destroy() {
 		XxlConfLocalCacheConf.destroy();	// destroy
+		XxlConfRemoteConf.destroy();
 	}
 
 }
@@ -0,0 +1,38 @@
+package com.xxl.conf.core.handle;
+
+import com.xxl.conf.core.core.XxlConfLocalCacheConf;
+
+/**
+ * conf handle, boolean, read without boxing by getBoolean()
+ */
+public class BooleanConfHandle extends ConfHandle<Boolean> {
+
+    private final boolean defaultValue;
+    private volatile boolean value;
+
+    public BooleanConfHandle(String key, boolean defaultValue) {
+        super(key);
+        this.defaultValue = defaultValue;
+        this.value = defaultValue;
+    }
+
+    public boolean getBoolean() {
+        return value;
+    }
+
+    @Override
+    public Boolean get() {
+        return value;
+    }
+
+    @Override
+    protected boolean update(String value, XxlConfLocalCacheConf.CacheNode cacheNode) {
+        boolean newValue = value!=null?cacheNode.getTypedView().getBoolean():defaultValue;
+        if (newValue == this.value) {
+            return false;
+        }
+        this.value = newValue;
+        return true;
+    }
+
+}
@@ -0,0 +1,82 @@
+package com.xxl.conf.core.handle;
+
+import com.xxl.conf.core.core.XxlConfLocalCacheConf;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * conf handle, live accessor of one conf key: value pre-parsed and held in volatile field, refreshed in place when conf changed
+ *
+ * register once by XxlConfClient.handle/intHandle/..., hold and read it on hot path
+ */
+public abstract class ConfHandle<T> {
+    protected static Logger logger = LoggerFactory.getLogger(ConfHandle.class);
+
+    private final String key;
+    private final CopyOnWriteArrayList<ConfHandleListener<T>> listeners = new CopyOnWriteArrayList<ConfHandleListener<T>>();
+
+    protected ConfHandle(String key) {
+        this.key = key;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    /**
+     * current value, boxed
+     */
+    public abstract T get();
+
+    /**
+     * add listener, invoke when value changed
+     *
+     * @param listener
+     * @return
+     */
+    public ConfHandle<T> addListener(ConfHandleListener<T> listener) {
+        if (listener != null) {
+            listeners.add(listener);
+        }
+        return this;
+    }
+
+    /**
+     * refresh from local cache, latest cache node always wins
+     */
+    synchronized void refresh() {
+        XxlConfLocalCacheConf.CacheNode cacheNode = XxlConfLocalCacheConf.peekNode(key);
+        String value = cacheNode!=null?cacheNode.getValue():null;
+
+        boolean changed;
+        try {
+            changed = update(value, cacheNode);
+        } catch (Exception e) {
+            logger.warn(">>>>>>>>>> xxl-conf, conf handle [{}] parse value fail, keep current value. value={}", key, value);
+            return;
+        }
+
+        if (changed && listeners.size() > 0) {
+            T newValue = get();
+            for (ConfHandleListener<T> listener: listeners) {
+                try {
+                    listener.onChange(key, newValue);
+                } catch (Exception e) {
+                    logger.error(e.getMessage(), e);
+                }
+            }
+        }
+    }
+
+    /**
+     * update value, null value means conf not exists
+     *
+     * @param value
+     * @param cacheNode     with cached typed view, null when value null
+     * @return  changed
+     */
+    protected abstract boolean update(String value, XxlConfLocalCacheConf.CacheNode cacheNode);
+
+}
@@ -0,0 +1,16 @@
+package com.xxl.conf.core.handle;
+
+/**
+ * conf handle listener, typed
+ */
+public interface ConfHandleListener<T> {
+
+    /**
+     * invoke when conf value changed
+     *
+     * @param key
+     * @param value
+     */
+    public void onChange(String key, T value) throws Exception;
+
+}
@@ -0,0 +1,38 @@
+package com.xxl.conf.core.handle;
+
+import com.xxl.conf.core.core.XxlConfLocalCacheConf;
+
+/**
+ * conf handle, int, read without boxing by getInt()
+ */
+public class IntConfHandle extends ConfHandle<Integer> {
+
+    private final int defaultValue;
+    private volatile int value;
+
+    public IntConfHandle(String key, int defaultValue) {
+        super(key);
+        this.defaultValue = defaultValue;
+        this.value = defaultValue;
+    }
+
+    public int getInt() {
+        return value;
+    }
+
+    @Override
+    public Integer get() {
+        return value;
+    }
+
+    @Override
+    protected boolean update(String value, XxlConfLocalCacheConf.CacheNode cacheNode) {
+        int newValue = value!=null?cacheNode.getTypedView().getInt():defaultValue;
+        if (newValue == this.value) {
+            return false;
+        }
+        this.value = newValue;
+        return true;
+    }
+
+}
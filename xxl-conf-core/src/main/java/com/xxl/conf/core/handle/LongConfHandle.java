@@ -0,0 +1,38 @@
+package com.xxl.conf.core.handle;
+
+import com.xxl.conf.core.core.XxlConfLocalCacheConf;
+
+/**
+ * conf handle, long, read without boxing by getLong()
+ */
+public class LongConfHandle extends ConfHandle<Long> {
+
+    private final long defaultValue;
+    private volatile long value;
+
+    public LongConfHandle(String key, long defaultValue) {
+        super(key);
+        this.defaultValue = defaultValue;
+        this.value = defaultValue;
+    }
+
+    public long getLong() {
+        return value;
+    }
+
+    @Override
+    public Long get() {
+        return value;
+    }
+
+    @Override
+    protected boolean update(String value, XxlConfLocalCacheConf.CacheNode cacheNode) {
+        long newValue = value!=null?cacheNode.getTypedView().getLong():defaultValue;
+        if (newValue == this.value) {
+            return false;
+        }
+        this.value = newValue;
+        return true;
+    }
+
+}
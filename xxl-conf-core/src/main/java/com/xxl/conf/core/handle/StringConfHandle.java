@@ -0,0 +1,34 @@
+package com.xxl.conf.core.handle;
+
+import com.xxl.conf.core.core.XxlConfLocalCacheConf;
+
+/**
+ * conf handle, string
+ */
+public class StringConfHandle extends ConfHandle<String> {
+
+    private final String defaultValue;
+    private volatile String value;
+
+    public StringConfHandle(String key, String defaultValue) {
+        super(key);
+        this.defaultValue = defaultValue;
+        this.value = defaultValue;
+    }
+
+    @Override
+    public String get() {
+        return value;
+    }
+
+    @Override
+    protected boolean update(String value, XxlConfLocalCacheConf.CacheNode cacheNode) {
+        String newValue = value!=null?value:defaultValue;
+        if (newValue==null?this.value==null:newValue.equals(this.value)) {
+            return false;
+        }
+        this.value = newValue;
+        return true;
+    }
+
+}
@@ -0,0 +1,55 @@
+package com.xxl.conf.core.handle;
+
+import com.xxl.conf.core.XxlConfClient;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * xxl conf handle repository, handles refreshed when local cache set
+ */
+public class XxlConfHandleFactory {
+
+    /**
+     * key : handle[]
+     */
+    private static ConcurrentHashMap<String, List<ConfHandle<?>>> keyHandleRepository = new ConcurrentHashMap<>();
+
+    /**
+     * register handle, load (first use, watch) and init value
+     *
+     * @param handle
+     * @return
+     */
+    public static <H extends ConfHandle<?>> H register(H handle) {
+        String key = handle.getKey();
+
+        // register first, then refresh: no change missed in between
+        List<ConfHandle<?>> handles = keyHandleRepository.get(key);
+        if (handles == null) {
+            keyHandleRepository.putIfAbsent(key, new CopyOnWriteArrayList<ConfHandle<?>>());
+            handles = keyHandleRepository.get(key);
+        }
+        handles.add(handle);
+
+        XxlConfClient.get(key, null);
+        handle.refresh();
+        return handle;
+    }
+
+    /**
+     * refresh handles on local cache set
+     *
+     * @param key
+     */
+    public static void onChange(String key) {
+        List<ConfHandle<?>> handles = keyHandleRepository.get(key);
+        if (handles != null) {
+            for (ConfHandle<?> handle: handles) {
+                handle.refresh();
+            }
+        }
+    }
+
+}
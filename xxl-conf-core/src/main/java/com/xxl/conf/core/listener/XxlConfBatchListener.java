@@ -0,0 +1,18 @@
+package com.xxl.conf.core.listener;
+
+import java.util.Map;
+
+/**
+ * xxl conf batch listener, invoke once for each refresh with all changed conf
+ */
+public interface XxlConfBatchListener {
+
+    /**
+     * invoke when conf-change, local cache already updated as a whole
+     *
+     * @param oldValues     changed key : old value (null when first loaded)
+     * @param newValues     changed key : new value
+     */
+    public void onChange(Map<String, String> oldValues, Map<String, String> newValues) throws Exception;
+
+}
@@ -7,7 +7,12 @@ import org.slf4j.LoggerFactory;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * xxl conf listener
@@ -18,10 +23,11 @@ public class XxlConfListenerFactory {
     private static Logger logger = LoggerFactory.getLogger(XxlConfListenerFactory.class);
 
     /**
-     * xxl conf listener repository
+     * xxl conf listener repository, copy-on-write
      */
     private static ConcurrentHashMap<String, List<XxlConfListener>> keyListenerRepository = new ConcurrentHashMap<>();
-    private static List<XxlConfListener> noKeyConfListener = Collections.synchronizedList(new ArrayList<XxlConfListener>());
+    private static List<XxlConfListener> noKeyConfListener = new CopyOnWriteArrayList<XxlConfListener>();
+    private static List<XxlConfBatchListener> batchListeners = new CopyOnWriteArrayList<XxlConfBatchListener>();
 
     /**
      * add listener and first invoke + watch
@@ -43,7 +49,7 @@ public class XxlConfListenerFactory {
             // first use, invoke and watch this key
             try {
                 String value = XxlConfClient.get(key);
-                xxlConfListener.onChange(key, value);
+                invokeListener(xxlConfListener, key, value);
             } catch (Exception e) {
                 logger.error(e.getMessage(), e);
             }
@@ -51,8 +57,8 @@ public class XxlConfListenerFactory {
             // listene this key
             List<XxlConfListener> listeners = keyListenerRepository.get(key);
             if (listeners == null) {
-                listeners = new ArrayList<>();
-                keyListenerRepository.put(key, listeners);
+                keyListenerRepository.putIfAbsent(key, new CopyOnWriteArrayList<XxlConfListener>());
+                listeners = keyListenerRepository.get(key);
             }
             listeners.add(xxlConfListener);
             return true;
@@ -64,24 +70,147 @@ public class XxlConfListenerFactory {
      *
      * @param key
      */
-    public static void onChange(String key, String value){
+    public static void onChange(final String key, final String value){
         if (key==null || key.trim().length()==0) {
             return;
         }
+
+        // sync, in refresh thread
+        Executor executor = dispatchExecutor;
+        if (executor == null) {
+            invokeKeyListeners(key, value);
+            invokeNoKeyListeners(key, value);
+            return;
+        }
+
+        // async, serial for each key
+        if (keyListenerRepository.containsKey(key)) {
+            getKeyDispatcher(key).dispatch(executor, new Runnable() {
+                @Override
+                public void run() {
+                    invokeKeyListeners(key, value);
+                }
+            });
+        }
+
+        // async, listener of all key serial as sync mode (called one at a time, never concurrently)
+        if (noKeyConfListener.size() > 0) {
+            noKeyDispatcher.dispatch(executor, new Runnable() {
+                @Override
+                public void run() {
+                    invokeNoKeyListeners(key, value);
+                }
+            });
+        }
+    }
+
+    private static KeyDispatcher getKeyDispatcher(String key) {
+        KeyDispatcher dispatcher = keyDispatcherRepository.get(key);
+        if (dispatcher == null) {
+            keyDispatcherRepository.putIfAbsent(key, new KeyDispatcher());
+            dispatcher = keyDispatcherRepository.get(key);
+        }
+        return dispatcher;
+    }
+
+    /**
+     * add batch listener, invoke once for each refresh with all changed conf
+     *
+     * @param batchListener
+     * @return
+     */
+    public static boolean addBatchListener(XxlConfBatchListener batchListener){
+        if (batchListener == null) {
+            return false;
+        }
+        batchListeners.add(batchListener);
+        return true;
+    }
+
+    /**
+     * invoke batch listener on xxl conf change, after listener of each key
+     *
+     * @param oldValues
+     * @param newValues
+     */
+    public static void onBatchChange(Map<String, String> oldValues, Map<String, String> newValues){
+        if (newValues==null || newValues.size()==0 || batchListeners.size()==0) {
+            return;
+        }
+        final Map<String, String> finalOldValues = Collections.unmodifiableMap(oldValues);
+        final Map<String, String> finalNewValues = Collections.unmodifiableMap(newValues);
+
+        // sync, in refresh thread
+        Executor executor = dispatchExecutor;
+        if (executor == null) {
+            invokeBatchListeners(finalOldValues, finalNewValues);
+            return;
+        }
+
+        // async, serial for batch; dispatched after listener of each key and of all key, by a barrier queued behind them
+        List<KeyDispatcher> dispatchers = new ArrayList<KeyDispatcher>();
+        for (String key: newValues.keySet()) {
+            dispatchers.add(getKeyDispatcher(key));
+        }
+        dispatchers.add(noKeyDispatcher);
+
+        final BatchTask batchTask = new BatchTask(dispatchers.size(), new Runnable() {
+            @Override
+            public void run() {
+                invokeBatchListeners(finalOldValues, finalNewValues);
+            }
+        });
+        pendingBatchTasks.offer(batchTask);
+
+        final Executor finalExecutor = executor;
+        Runnable barrier = new Runnable() {
+            @Override
+            public void run() {
+                if (batchTask.remaining.decrementAndGet() == 0) {
+                    dispatchBatchTasks(finalExecutor);
+                }
+            }
+        };
+        for (KeyDispatcher dispatcher: dispatchers) {
+            dispatcher.dispatch(executor, barrier);
+        }
+    }
+
+    private static void invokeBatchListeners(Map<String, String> oldValues, Map<String, String> newValues){
+        for (XxlConfBatchListener batchListener: batchListeners) {
+            long start = System.nanoTime();
+            try {
+                batchListener.onChange(oldValues, newValues);
+            } catch (Exception e) {
+                logger.error(e.getMessage(), e);
+            } finally {
+                long time = System.nanoTime() - start;
+                if (time > TimeUnit.MILLISECONDS.toNanos(SLOW_LISTENER_MS)) {
+                    logger.warn(">>>>>>>>>> xxl-conf, slow batch listener [{}], cost {}ms.",
+                            batchListener.getClass().getName(), TimeUnit.NANOSECONDS.toMillis(time));
+                }
+            }
+        }
+    }
+
+    private static void invokeKeyListeners(String key, String value){
         List<XxlConfListener> keyListeners = keyListenerRepository.get(key);
         if (keyListeners!=null && keyListeners.size()>0) {
             for (XxlConfListener listener : keyListeners) {
                 try {
-                    listener.onChange(key, value);
+                    invokeListener(listener, key, value);
                 } catch (Exception e) {
                     logger.error(e.getMessage(), e);
                 }
             }
         }
+    }
+
+    private static void invokeNoKeyListeners(String key, String value){
         if (noKeyConfListener.size() > 0) {
             for (XxlConfListener confListener: noKeyConfListener) {
                 try {
-                    confListener.onChange(key, value);
+                    invokeListener(confListener, key, value);
                 } catch (Exception e) {
                     logger.error(e.getMessage(), e);
                 }
@@ -89,4 +218,163 @@ public class XxlConfListenerFactory {
         }
     }
 
+
+    // ---------------------- dispatch ----------------------
+
+    /**
+     * listener dispatch executor, null will invoke listener in refresh thread; keys dispatched in parallel, each key in order;
+     * listener of all key (such as BeanRefreshXxlConfListener) and batch listener each serial, one call at a time as in refresh thread
+     */
+    private static volatile Executor dispatchExecutor = null;
+    private static ConcurrentHashMap<String, KeyDispatcher> keyDispatcherRepository = new ConcurrentHashMap<>();
+    private static KeyDispatcher noKeyDispatcher = new KeyDispatcher();
+    private static KeyDispatcher batchDispatcher = new KeyDispatcher();
+    private static Queue<BatchTask> pendingBatchTasks = new ConcurrentLinkedQueue<BatchTask>();
+
+    public static void setDispatchExecutor(Executor dispatchExecutor) {
+        XxlConfListenerFactory.dispatchExecutor = dispatchExecutor;
+    }
+
+    /**
+     * serial dispatcher of one key, at most one task running in executor
+     */
+    private static class KeyDispatcher implements Runnable {
+        private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<Runnable>();
+        private final AtomicBoolean running = new AtomicBoolean(false);
+        private volatile Executor executor;
+
+        public void dispatch(Executor executor, Runnable task) {
+            tasks.offer(task);
+            schedule(executor);
+        }
+
+        private void schedule(Executor executor) {
+            if (!tasks.isEmpty() && running.compareAndSet(false, true)) {
+                this.executor = executor;
+                try {
+                    executor.execute(this);
+                } catch (RejectedExecutionException e) {
+                    logger.warn(">>>>>>>>>> xxl-conf, listener dispatch rejected, invoke in current thread.");
+                    run();
+                }
+            }
+        }
+
+        @Override
+        public void run() {
+            try {
+                Runnable task;
+                while ((task = tasks.poll()) != null) {
+                    task.run();
+                }
+            } finally {
+                running.set(false);
+            }
+            // task offered after poll but before running reset
+            schedule(executor);
+        }
+    }
+
+
+    /**
+     * batch task, ready when listener of each key finished
+     */
+    private static class BatchTask {
+        private final AtomicInteger remaining;
+        private final Runnable task;
+
+        public BatchTask(int remaining, Runnable task) {
+            this.remaining = new AtomicInteger(remaining);
+            this.task = task;
+        }
+    }
+
+    /**
+     * dispatch ready batch tasks in order, a batch never overtakes the earlier one
+     */
+    private static void dispatchBatchTasks(Executor executor) {
+        synchronized (pendingBatchTasks) {
+            BatchTask batchTask;
+            while ((batchTask = pendingBatchTasks.peek())!=null && batchTask.remaining.get()==0) {
+                pendingBatchTasks.poll();
+                batchDispatcher.dispatch(executor, batchTask.task);
+            }
+        }
+    }
+
+
+    // ---------------------- stat ----------------------
+
+    private static final long SLOW_LISTENER_MS = 1000;
+    private static ConcurrentHashMap<XxlConfListener, ListenerStat> listenerStatRepository = new ConcurrentHashMap<>();
+
+    /**
+     * listener invoke stat
+     */
+    public static class ListenerStat {
+        private final AtomicLong invokeCount = new AtomicLong();
+        private final AtomicLong failCount = new AtomicLong();
+        private final AtomicLong totalTime = new AtomicLong();      // ns
+        private final AtomicLong maxTime = new AtomicLong();        // ns
+
+        private void record(long time, boolean fail) {
+            invokeCount.incrementAndGet();
+            if (fail) {
+                failCount.incrementAndGet();
+            }
+            totalTime.addAndGet(time);
+            long max;
+            while (time > (max = maxTime.get()) && !maxTime.compareAndSet(max, time)) {
+                // retry
+            }
+        }
+
+        public long getInvokeCount() {
+            return invokeCount.get();
+        }
+
+        public long getFailCount() {
+            return failCount.get();
+        }
+
+        public long getTotalTimeNanos() {
+            return totalTime.get();
+        }
+
+        public long getMaxTimeNanos() {
+            return maxTime.get();
+        }
+    }
+
+    /**
+     * stat of each listener
+     *
+     * @return
+     */
+    public static Map<XxlConfListener, ListenerStat> getListenerStat() {
+        return Collections.unmodifiableMap(listenerStatRepository);
+    }
+
+    private static void invokeListener(XxlConfListener listener, String key, String value) throws Exception {
+        ListenerStat stat = listenerStatRepository.get(listener);
+        if (stat == null) {
+            listenerStatRepository.putIfAbsent(listener, new ListenerStat());
+            stat = listenerStatRepository.get(listener);
+        }
+
+        long start = System.nanoTime();
+        boolean fail = true;
+        try {
+            listener.onChange(key, value);
+            fail = false;
+        } finally {
+            long time = System.nanoTime() - start;
+            stat.record(time, fail);
+            if (time > TimeUnit.MILLISECONDS.toNanos(SLOW_LISTENER_MS)) {
+                logger.warn(">>>>>>>>>> xxl-conf, slow listener [{}] on key [{}], cost {}ms.",
+                        listener.getClass().getName(), key, TimeUnit.NANOSECONDS.toMillis(time));
+            }
+        }
+    }
+
 }
@@ -0,0 +1,38 @@
+package com.xxl.conf.core.model;
+
+import java.util.Map;
+
+/**
+ * conf data changed since revision
+ */
+public class XxlConfDataVO {
+
+    private long revision;                  // snapshot revision, send it back on next request
+    private Map<String, String> data;       // changed conf data, key -> value
+    private Map<String, Long> revisions;    // changed conf revision, key -> revision
+
+    public long getRevision() {
+        return revision;
+    }
+
+    public void setRevision(long revision) {
+        this.revision = revision;
+    }
+
+    public Map<String, String> getData() {
+        return data;
+    }
+
+    public void setData(Map<String, String> data) {
+        this.data = data;
+    }
+
+    public Map<String, Long> getRevisions() {
+        return revisions;
+    }
+
+    public void setRevisions(Map<String, Long> revisions) {
+        this.revisions = revisions;
+    }
+
+}
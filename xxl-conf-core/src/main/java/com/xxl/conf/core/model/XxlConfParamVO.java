@@ -10,6 +10,12 @@ public class XxlConfParamVO {
     private String accessToken;
     private String env;
     private List<String> keys;
+    private Long revision;      // last-seen revision, optional; only conf changed since then will be responsed
+
+    private String sessionId;           // session registered, optional; keys of session used when keys empty
+    private String digest;              // key digest of session, optional; session invalid when not match
+    private List<String> addKeys;       // keys added to session, for session update
+    private List<String> removeKeys;    // keys removed from session, for session update
 
     public String getAccessToken() {
         return accessToken;
@@ -35,4 +41,44 @@ public class XxlConfParamVO {
         this.keys = keys;
     }
 
+    public Long getRevision() {
+        return revision;
+    }
+
+    public void setRevision(Long revision) {
+        this.revision = revision;
+    }
+
+    public String getSessionId() {
+        return sessionId;
+    }
+
+    public void setSessionId(String sessionId) {
+        this.sessionId = sessionId;
+    }
+
+    public String getDigest() {
+        return digest;
+    }
+
+    public void setDigest(String digest) {
+        this.digest = digest;
+    }
+
+    public List<String> getAddKeys() {
+        return addKeys;
+    }
+
+    public void setAddKeys(List<String> addKeys) {
+        this.addKeys = addKeys;
+    }
+
+    public List<String> getRemoveKeys() {
+        return removeKeys;
+    }
+
+    public void setRemoveKeys(List<String> removeKeys) {
+        this.removeKeys = removeKeys;
+    }
+
 }
@@ -0,0 +1,27 @@
+package com.xxl.conf.core.model;
+
+/**
+ * session registered, keys sent once and referenced by session id
+ */
+public class XxlConfSessionVO {
+
+    private String sessionId;
+    private String digest;          // key digest of session, same as client computed if keys in sync
+
+    public String getSessionId() {
+        return sessionId;
+    }
+
+    public void setSessionId(String sessionId) {
+        this.sessionId = sessionId;
+    }
+
+    public String getDigest() {
+        return digest;
+    }
+
+    public void setDigest(String digest) {
+        this.digest = digest;
+    }
+
+}
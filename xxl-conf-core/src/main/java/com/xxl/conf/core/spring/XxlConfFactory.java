@@ -2,9 +2,12 @@ package com.xxl.conf.core.spring;
 
 import com.xxl.conf.core.XxlConfClient;
 import com.xxl.conf.core.annotation.XxlConf;
+import com.xxl.conf.core.core.XxlConfRemoteConf;
 import com.xxl.conf.core.exception.XxlConfException;
 import com.xxl.conf.core.factory.XxlConfBaseFactory;
+import com.xxl.conf.core.listener.XxlConfListenerFactory;
 import com.xxl.conf.core.listener.impl.BeanRefreshXxlConfListener;
+import com.xxl.conf.core.transport.XxlConfTransport;
 import com.xxl.conf.core.util.FieldReflectionUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -20,6 +23,7 @@ import org.springframework.util.ReflectionUtils;
 import java.beans.PropertyDescriptor;
 import java.lang.reflect.Field;
 import java.util.Objects;
+import java.util.concurrent.Executor;
 
 /**
  * XxlConf Factory
@@ -40,6 +44,14 @@ public class XxlConfFactory extends InstantiationAwareBeanPostProcessorAdapter
 	private String env;
 	private String accessToken;
 	private String mirrorfile;
+	private String missPolicy;		// BLOCKING(default), ASYNC_DEFAULT, BLOCKING_WITH_BUDGET
+	private long missBudget;
+	private XxlConfTransport transport;		// optional, default keep-alive http transport
+	private Executor listenerExecutor;		// optional, listener invoked async (ordered for each key); default in refresh thread
+	private boolean streamEnable = true;	// optional, subscribe conf change by event stream, fall back to long polling
+	private boolean sessionEnable = true;	// optional, monitor by session, keys registered once instead of sent each poll
+	private long hedgeDelay;				// optional, ms, hedge find to another admin when no reply after delay; <=0 disabled (default)
+	private double hedgeBudget = 0.1;		// optional, max fraction of hedged find
 
 	public void setAdminAddress(String adminAddress) {
 		this.adminAddress = adminAddress;
@@ -57,11 +69,48 @@ public class XxlConfFactory extends InstantiationAwareBeanPostProcessorAdapter
         this.mirrorfile = mirrorfile;
     }
 
+	public void setMissPolicy(String missPolicy) {
+		this.missPolicy = missPolicy;
+	}
+
+	public void setMissBudget(long missBudget) {
+		this.missBudget = missBudget;
+	}
+
+	public void setTransport(XxlConfTransport transport) {
+		this.transport = transport;
+	}
+
+	public void setListenerExecutor(Executor listenerExecutor) {
+		this.listenerExecutor = listenerExecutor;
+	}
+
+	public void setStreamEnable(boolean streamEnable) {
+		this.streamEnable = streamEnable;
+	}
+
+	public void setSessionEnable(boolean sessionEnable) {
+		this.sessionEnable = sessionEnable;
+	}
+
+	public void setHedgeDelay(long hedgeDelay) {
+		this.hedgeDelay = hedgeDelay;
+	}
+
+	public void setHedgeBudget(double hedgeBudget) {
+		this.hedgeBudget = hedgeBudget;
+	}
+
     // ---------------------- init/destroy ----------------------
 
 	@Override
 	public void afterPropertiesSet() {
-		XxlConfBaseFactory.init(adminAddress, env, accessToken, mirrorfile);
+		XxlConfRemoteConf.setTransport(transport);
+		XxlConfRemoteConf.setStreamEnable(streamEnable);
+		XxlConfRemoteConf.setSessionEnable(sessionEnable);
+		XxlConfRemoteConf.setHedge(hedgeDelay, hedgeBudget);
+		XxlConfListenerFactory.setDispatchExecutor(listenerExecutor);
+		XxlConfBaseFactory.init(adminAddress, env, accessToken, mirrorfile, missPolicy, missBudget);
 	}
 
 	@Override
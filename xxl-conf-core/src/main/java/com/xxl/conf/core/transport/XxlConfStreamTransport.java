@@ -0,0 +1,42 @@
+package com.xxl.conf.core.transport;
+
+/**
+ * xxl conf stream transport, subscribe admin by server-sent events; optional, client falls back to long polling without it
+ */
+public interface XxlConfStreamTransport extends XxlConfTransport {
+
+    /**
+     * stream event listener, invoked in stream thread
+     */
+    public interface StreamListener {
+
+        /**
+         * checked on each line read (event or heartbeat), stream closed when inactive
+         *
+         * @return
+         */
+        public boolean isActive();
+
+        /**
+         * on event received
+         *
+         * @param event     event name, "message" if absent
+         * @param data      event data, multi data line joined by "\n"
+         */
+        public void onEvent(String event, String data);
+
+    }
+
+    /**
+     * post json body, read response as event stream until closed by server or listener
+     *
+     * @param url
+     * @param requestBody
+     * @param connectTimeout    ms
+     * @param readTimeout       ms, max interval between two lines (heartbeat)
+     * @param listener
+     * @return  false when stream not supported or broken
+     */
+    public boolean stream(String url, String requestBody, int connectTimeout, int readTimeout, StreamListener listener);
+
+}
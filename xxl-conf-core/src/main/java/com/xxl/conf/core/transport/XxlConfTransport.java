@@ -0,0 +1,25 @@
+package com.xxl.conf.core.transport;
+
+/**
+ * xxl conf transport, request admin by http post
+ */
+public interface XxlConfTransport {
+
+    /**
+     * post json body
+     *
+     * @param url
+     * @param requestBody
+     * @param connectTimeout    ms
+     * @param readTimeout       ms
+     * @return  response body, null when request fail (connect/read fail, or server error 5xx)
+     * @throws XxlConfTransportException    when request not sent or rejected by admin (such as invalid url, 4xx)
+     */
+    public String post(String url, String requestBody, int connectTimeout, int readTimeout);
+
+    /**
+     * release connections
+     */
+    public void destroy();
+
+}
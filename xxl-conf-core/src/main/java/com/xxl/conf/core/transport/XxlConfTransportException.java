@@ -0,0 +1,21 @@
+package com.xxl.conf.core.transport;
+
+import com.xxl.conf.core.exception.XxlConfException;
+
+/**
+ * transport exception, request not sent or rejected by admin (such as invalid url, 4xx);
+ * admin node is reachable or not involved, not counted as node fail (unlike connect/read fail or 5xx, which return null)
+ */
+public class XxlConfTransportException extends XxlConfException {
+
+    private static final long serialVersionUID = 42L;
+
+    public XxlConfTransportException(String msg) {
+        super(msg);
+    }
+
+    public XxlConfTransportException(String msg, Throwable cause) {
+        super(msg, cause);
+    }
+
+}
@@ -0,0 +1,211 @@
+package com.xxl.conf.core.transport.impl;
+
+import com.xxl.conf.core.transport.XxlConfStreamTransport;
+import com.xxl.conf.core.transport.XxlConfTransportException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * http transport, with persistent connection and gzip; event stream supported
+ *
+ * connection is kept alive and reused by jdk http keep-alive cache (idle connections per address: "http.maxConnections"):
+ * body fully read and stream closed, never disconnect; concurrent requests not limited, long polling and stream never block find.
+ */
+public class HttpXxlConfTransport implements XxlConfStreamTransport {
+    private static Logger logger = LoggerFactory.getLogger(HttpXxlConfTransport.class);
+
+    private static final int BUFFER_SIZE = 4096;
+
+    @Override
+    public String post(String url, String requestBody, int connectTimeout, int readTimeout) {
+        URL realUrl = parseUrl(url);
+        HttpURLConnection connection = null;
+        try {
+            // connection
+            connection = (HttpURLConnection) realUrl.openConnection();
+            connection.setRequestProperty("Accept-Encoding", "gzip");
+            writeRequest(connection, requestBody, connectTimeout, readTimeout);
+
+            // valid StatusCode, 4xx rejected by admin
+            int statusCode = connection.getResponseCode();
+            if (statusCode != 200) {
+                drain(connection.getErrorStream());     // keep connection reusable
+                if (statusCode>=400 && statusCode<500) {
+                    throw new XxlConfTransportException("http request StatusCode("+ statusCode +") invalid. for url : " + url);
+                }
+                throw new RuntimeException("http request StatusCode("+ statusCode +") invalid. for url : " + url);
+            }
+
+            // result
+            InputStream inputStream = connection.getInputStream();
+            if ("gzip".equalsIgnoreCase(connection.getContentEncoding())) {
+                inputStream = new GZIPInputStream(inputStream);
+            }
+            return new String(read(inputStream), "UTF-8");
+        } catch (XxlConfTransportException e) {
+            throw e;
+        } catch (Exception e) {
+            logger.error(e.getMessage(), e);
+
+            // broken connection, not reuse
+            if (connection != null) {
+                connection.disconnect();
+            }
+        }
+        return null;
+    }
+
+    private static URL parseUrl(String url) {
+        try {
+            return new URL(url);
+        } catch (MalformedURLException e) {
+            throw new XxlConfTransportException("http url invalid : " + url, e);
+        }
+    }
+
+    @Override
+    public boolean stream(String url, String requestBody, int connectTimeout, int readTimeout, StreamListener listener) {
+        HttpURLConnection connection = null;
+        boolean closeByListener = false;
+        try {
+            // connection
+            URL realUrl = new URL(url);
+
+            // no gzip, event flushed one by one
+            connection = (HttpURLConnection) realUrl.openConnection();
+            connection.setRequestProperty("Accept", "text/event-stream");
+            writeRequest(connection, requestBody, connectTimeout, readTimeout);
+
+            // valid StatusCode, ContentType
+            int statusCode = connection.getResponseCode();
+            if (statusCode != 200) {
+                drain(connection.getErrorStream());
+                throw new RuntimeException("http stream StatusCode("+ statusCode +") invalid. for url : " + url);
+            }
+            String contentType = connection.getContentType();
+            if (contentType==null || !contentType.startsWith("text/event-stream")) {
+                throw new RuntimeException("http stream ContentType("+ contentType +") invalid. for url : " + url);
+            }
+
+            // read event: "event:" and "data:" lines, dispatch on blank line; ":" comment as heartbeat
+            BufferedReader reader = new BufferedReader(new InputStreamReader(connection.getInputStream(), "UTF-8"));
+            try {
+                String event = null;
+                StringBuilder data = null;
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (!listener.isActive()) {
+                        closeByListener = true;
+                        break;
+                    }
+
+                    if (line.length() == 0) {
+                        if (data != null) {
+                            listener.onEvent(event!=null?event:"message", data.toString());
+                        }
+                        event = null;
+                        data = null;
+                    } else if (line.startsWith("event:")) {
+                        event = parseFieldValue(line, 6);
+                    } else if (line.startsWith("data:")) {
+                        if (data == null) {
+                            data = new StringBuilder();
+                        } else {
+                            data.append('\n');
+                        }
+                        data.append(parseFieldValue(line, 5));
+                    }
+                }
+            } finally {
+                // stream not finished, not reuse
+                if (closeByListener) {
+                    connection.disconnect();
+                }
+                reader.close();
+            }
+            return true;
+        } catch (Exception e) {
+            logger.error(e.getMessage(), e);
+
+            // broken connection, not reuse
+            if (connection != null) {
+                connection.disconnect();
+            }
+        }
+        return false;
+    }
+
+    private static String parseFieldValue(String line, int fieldLength) {
+        return (line.length()>fieldLength && line.charAt(fieldLength)==' ')
+                ?line.substring(fieldLength+1)
+                :line.substring(fieldLength);
+    }
+
+    private static void writeRequest(HttpURLConnection connection, String requestBody, int connectTimeout, int readTimeout) throws IOException {
+
+        // connection setting
+        byte[] requestBodyBytes = requestBody.getBytes("UTF-8");
+
+        connection.setRequestMethod("POST");
+        connection.setDoOutput(true);
+        connection.setDoInput(true);
+        connection.setUseCaches(false);
+        connection.setConnectTimeout(connectTimeout);
+        connection.setReadTimeout(readTimeout);
+        connection.setFixedLengthStreamingMode(requestBodyBytes.length);
+        connection.setRequestProperty("Connection", "Keep-Alive");
+        connection.setRequestProperty("Content-Type", "application/json;charset=UTF-8");
+        connection.setRequestProperty("Accept-Charset", "application/json;charset=UTF-8");
+
+        // write requestBody
+        OutputStream outputStream = connection.getOutputStream();
+        try {
+            outputStream.write(requestBodyBytes);
+            outputStream.flush();
+        } finally {
+            outputStream.close();
+        }
+    }
+
+    @Override
+    public void destroy() {
+        // connections owned by jdk keep-alive cache, released when idle
+    }
+
+    private static byte[] read(InputStream inputStream) throws IOException {
+        try {
+            ByteArrayOutputStream result = new ByteArrayOutputStream(BUFFER_SIZE);
+            byte[] buffer = new byte[BUFFER_SIZE];
+            int len;
+            while ((len = inputStream.read(buffer)) != -1) {
+                result.write(buffer, 0, len);
+            }
+            return result.toByteArray();
+        } finally {
+            inputStream.close();
+        }
+    }
+
+    private static void drain(InputStream inputStream) {
+        if (inputStream == null) {
+            return;
+        }
+        try {
+            read(inputStream);
+        } catch (IOException e) {
+            logger.debug(e.getMessage(), e);
+        }
+    }
+
+}
@@ -1,20 +1,25 @@
 package com.xxl.conf.core.util;
 
+import com.xxl.conf.core.transport.XxlConfTransportException;
+import com.xxl.conf.core.transport.impl.HttpXxlConfTransport;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.BufferedReader;
-import java.io.DataOutputStream;
 import java.io.InputStreamReader;
 import java.net.HttpURLConnection;
 import java.net.URL;
 
 /**
  * @author xuxueli 2018-11-25 00:55:31
+ * @deprecated replaced by {@link com.xxl.conf.core.transport.XxlConfTransport}, post delegated to {@link HttpXxlConfTransport}; will be removed in next version
  */
+@Deprecated
 public class BasicHttpUtil {
     private static Logger logger = LoggerFactory.getLogger(BasicHttpUtil.class);
 
+    private static final HttpXxlConfTransport transport = new HttpXxlConfTransport();
+
     /**
      * post
      *
@@ -24,69 +29,12 @@ public class BasicHttpUtil {
      * @return
      */
     public static String postBody(String url, String requestBody, int timeout) {
-        HttpURLConnection connection = null;
-        BufferedReader bufferedReader = null;
         try {
-            // connection
-            URL realUrl = new URL(url);
-            connection = (HttpURLConnection) realUrl.openConnection();
-
-            // connection setting
-            connection.setRequestMethod("POST");
-            connection.setDoOutput(true);
-            connection.setDoInput(true);
-            connection.setUseCaches(false);
-            connection.setReadTimeout(timeout * 1000);
-            connection.setConnectTimeout(3 * 1000);
-            connection.setRequestProperty("connection", "Keep-Alive");
-            connection.setRequestProperty("Content-Type", "application/json;charset=UTF-8");
-            connection.setRequestProperty("Accept-Charset", "application/json;charset=UTF-8");
-
-            // do connection
-            connection.connect();
-
-            // write requestBody
-            DataOutputStream dataOutputStream = new DataOutputStream(connection.getOutputStream());
-            dataOutputStream.write(requestBody.getBytes("UTF-8"));
-            dataOutputStream.flush();
-            dataOutputStream.close();
-
-            /*byte[] requestBodyBytes = requestBody.getBytes("UTF-8");
-            connection.setRequestProperty("Content-Length", String.valueOf(requestBodyBytes.length));
-            OutputStream outwritestream = connection.getOutputStream();
-            outwritestream.write(requestBodyBytes);
-            outwritestream.flush();
-            outwritestream.close();*/
-
-            // valid StatusCode
-            int statusCode = connection.getResponseCode();
-            if (statusCode != 200) {
-                throw new RuntimeException("http request StatusCode("+ statusCode +") invalid. for url : " + url);
-            }
-
-            // result
-            bufferedReader = new BufferedReader(new InputStreamReader(connection.getInputStream()));
-            StringBuilder result = new StringBuilder();
-            String line;
-            while ((line = bufferedReader.readLine()) != null) {
-                result.append(line);
-            }
-            return result.toString();
-        } catch (Exception e) {
+            return transport.post(url, requestBody, 3 * 1000, timeout * 1000);
+        } catch (XxlConfTransportException e) {
             logger.error(e.getMessage(), e);
-        } finally {
-            try {
-                if (bufferedReader != null) {
-                    bufferedReader.close();
-                }
-                if (connection != null) {
-                    connection.disconnect();
-                }
-            } catch (Exception e2) {
-                logger.error(e2.getMessage(), e2);
-            }
+            return null;
         }
-        return null;
     }
 
     /**
@@ -127,11 +75,12 @@ public class BasicHttpUtil {
             }
 
             // result
-            bufferedReader = new BufferedReader(new InputStreamReader(connection.getInputStream()));
+            bufferedReader = new BufferedReader(new InputStreamReader(connection.getInputStream(), "UTF-8"));
             StringBuilder result = new StringBuilder();
-            String line;
-            while ((line = bufferedReader.readLine()) != null) {
-                result.append(line);
+            char[] buffer = new char[1024];
+            int len;
+            while ((len = bufferedReader.read(buffer)) != -1) {
+                result.append(buffer, 0, len);
             }
             return result.toString();
         } catch (Exception e) {
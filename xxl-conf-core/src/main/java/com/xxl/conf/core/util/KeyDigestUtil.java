@@ -0,0 +1,43 @@
+package com.xxl.conf.core.util;
+
+import com.xxl.conf.core.exception.XxlConfException;
+
+import java.nio.charset.Charset;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * key digest, md5 hex of sorted keys (joined by "\n"); same on client and admin
+ */
+public class KeyDigestUtil {
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    public static String digest(Collection<String> keys) {
+        List<String> sortedKeys = new ArrayList<>(keys);
+        Collections.sort(sortedKeys);
+
+        try {
+            MessageDigest md5 = MessageDigest.getInstance("MD5");
+            for (String key: sortedKeys) {
+                md5.update(key.getBytes(UTF_8));
+                md5.update((byte) '\n');
+            }
+
+            byte[] bytes = md5.digest();
+            char[] hex = new char[bytes.length * 2];
+            for (int i = 0; i < bytes.length; i++) {
+                hex[i*2] = HEX[(bytes[i] >> 4) & 0xf];
+                hex[i*2+1] = HEX[bytes[i] & 0xf];
+            }
+            return new String(hex);
+        } catch (Exception e) {
+            throw new XxlConfException(e);
+        }
+    }
+
+}
@@ -1,25 +1,27 @@
 package com.xxl.conf.core.util.json;
 
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
-
 import java.util.ArrayList;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
 /**
+ * single-pass json reader, scan by char index, no intermediate token string
+ *
+ * object -> LinkedHashMap, array -> ArrayList, integer -> Long, decimal -> Double, true/false -> Boolean, null -> null
+ *
  * @author xuxueli 2018-11-30
  */
 public class BasicJsonReader {
-	private static Logger logger = LoggerFactory.getLogger(BasicJsonwriter.class);
 
 
 	public Map<String, Object> parseMap(String json) {
 		if (json != null) {
-			json = json.trim();
-			if (json.startsWith("{")) {
-				return parseMapInternal(json);
+			Parser parser = new Parser(json);
+			if (parser.skipWhitespace() == '{') {
+				Map<String, Object> map = parser.readMap();
+				parser.assertEnd();
+				return map;
 			}
 		}
 		throw new IllegalArgumentException("Cannot parse JSON");
@@ -27,154 +29,283 @@ public class BasicJsonReader {
 
 	public List<Object> parseList(String json) {
 		if (json != null) {
-			json = json.trim();
-			if (json.startsWith("[")) {
-				return parseListInternal(json);
+			Parser parser = new Parser(json);
+			if (parser.skipWhitespace() == '[') {
+				List<Object> list = parser.readList();
+				parser.assertEnd();
+				return list;
 			}
 		}
 		throw new IllegalArgumentException("Cannot parse JSON");
 	}
 
-	private List<Object> parseListInternal(String json) {
-		List<Object> list = new ArrayList<Object>();
-		json = trimLeadingCharacter(trimTrailingCharacter(json, ']'), '[');
-		for (String value : tokenize(json)) {
-			list.add(parseInternal(value));
-		}
-		return list;
-	}
 
-	private Object parseInternal(String json) {
-		if (json.startsWith("[")) {
-			return parseListInternal(json);
-		}
-		if (json.startsWith("{")) {
-			return parseMapInternal(json);
-		}
-		if (json.startsWith("\"")) {
-			return trimTrailingCharacter(trimLeadingCharacter(json, '"'), '"');
-		}
-		try {
-			return Long.valueOf(json);
+	/**
+	 * parse state of one document, not thread-safe
+	 */
+	private static class Parser {
+		private final String json;
+		private final int length;
+		private int index;
+		private StringBuilder escapeBuilder;		// lazy, only for string with escape
+
+		private Parser(String json) {
+			this.json = json;
+			this.length = json.length();
 		}
-		catch (NumberFormatException ex) {
-			// ignore
+
+		/**
+		 * skip whitespace, return current char (not consumed), or 0 when end
+		 */
+		private char skipWhitespace() {
+			while (index < length) {
+				char current = json.charAt(index);
+				if (current==' ' || current=='\t' || current=='\n' || current=='\r') {
+					index++;
+				} else {
+					return current;
+				}
+			}
+			return 0;
 		}
-		try {
-			return Double.valueOf(json);
+
+		private void expect(char c) {
+			if (skipWhitespace() != c) {
+				throw error("expect '" + c + "'");
+			}
+			index++;
 		}
-		catch (NumberFormatException ex) {
-			// ignore
+
+		private void assertEnd() {
+			if (skipWhitespace() != 0) {
+				throw error("unexpected trailing content");
+			}
 		}
-		return json;
-	}
 
-	private Map<String, Object> parseMapInternal(String json) {
-		Map<String, Object> map = new LinkedHashMap<String, Object>();
-		json = trimLeadingCharacter(trimTrailingCharacter(json, '}'), '{');
-		for (String pair : tokenize(json)) {
-			String[] values = trimArrayElements(split(pair, ":"));
-			String key = trimLeadingCharacter(trimTrailingCharacter(values[0], '"'), '"');
-			Object value = parseInternal(values[1]);
-			map.put(key, value);
+		private IllegalArgumentException error(String msg) {
+			return new IllegalArgumentException("Cannot parse JSON, " + msg + " at index " + index);
 		}
-		return map;
-	}
 
-	// append start
-	private static String[] split(String toSplit, String delimiter) {
-		if (toSplit!=null && !toSplit.isEmpty() && delimiter!=null && !delimiter.isEmpty()) {
-			int offset = toSplit.indexOf(delimiter);
-			if (offset < 0) {
-				return null;
-			} else {
-				String beforeDelimiter = toSplit.substring(0, offset);
-				String afterDelimiter = toSplit.substring(offset + delimiter.length());
-				return new String[]{beforeDelimiter, afterDelimiter};
-			}
-		} else {
-			return null;
+		private Object readValue() {
+			char current = skipWhitespace();
+			switch (current) {
+				case '{':
+					return readMap();
+				case '[':
+					return readList();
+				case '"':
+					return readString();
+				case 't':
+					readLiteral("true");
+					return Boolean.TRUE;
+				case 'f':
+					readLiteral("false");
+					return Boolean.FALSE;
+				case 'n':
+					readLiteral("null");
+					return null;
+				default:
+					if (current=='-' || (current>='0' && current<='9')) {
+						return readNumber();
+					}
+					throw error("unexpected char '" + current + "'");
+			}
 		}
-	}
-	private static String[] trimArrayElements(String[] array) {
-		if (array == null || array.length == 0) {
-			return new String[0];
-		} else {
-			String[] result = new String[array.length];
 
-			for(int i = 0; i < array.length; ++i) {
-				String element = array[i];
-				result[i] = element != null ? element.trim() : null;
+		private Map<String, Object> readMap() {
+			expect('{');
+			Map<String, Object> map = new LinkedHashMap<String, Object>();
+			if (skipWhitespace() == '}') {
+				index++;
+				return map;
 			}
+			while (true) {
+				if (skipWhitespace() != '"') {
+					throw error("expect key");
+				}
+				String key = readString();
+				expect(':');
+				map.put(key, readValue());
 
-			return result;
+				char current = skipWhitespace();
+				index++;
+				if (current == ',') {
+					continue;
+				}
+				if (current == '}') {
+					return map;
+				}
+				throw error("expect ',' or '}'");
+			}
 		}
-	}
-	// append end
-
-
-	private List<String> tokenize(String json) {
-		List<String> list = new ArrayList<String>();
-		int index = 0;
-		int inObject = 0;
-		int inList = 0;
-		boolean inValue = false;
-		boolean inEscape = false;
-		StringBuilder build = new StringBuilder();
-		while (index < json.length()) {
-			char current = json.charAt(index);
-			if (inEscape) {
-				build.append(current);
+
+		private List<Object> readList() {
+			expect('[');
+			List<Object> list = new ArrayList<Object>();
+			if (skipWhitespace() == ']') {
 				index++;
-				inEscape = false;
-				continue;
+				return list;
 			}
-			if (current == '{') {
-				inObject++;
+			while (true) {
+				list.add(readValue());
+
+				char current = skipWhitespace();
+				index++;
+				if (current == ',') {
+					continue;
+				}
+				if (current == ']') {
+					return list;
+				}
+				throw error("expect ',' or ']'");
 			}
-			if (current == '}') {
-				inObject--;
+		}
+
+		private String readString() {
+			index++;	// open quote
+			int start = index;
+
+			// fast path: no escape, one substring
+			while (index < length) {
+				char current = json.charAt(index);
+				if (current == '"') {
+					return json.substring(start, index++);
+				}
+				if (current == '\\') {
+					break;
+				}
+				index++;
 			}
-			if (current == '[') {
-				inList++;
+			if (index >= length) {
+				throw error("unterminated string");
 			}
-			if (current == ']') {
-				inList--;
+
+			// slow path: with escape
+			if (escapeBuilder == null) {
+				escapeBuilder = new StringBuilder();
 			}
-			if (current == '"') {
-				inValue = !inValue;
+			StringBuilder builder = escapeBuilder;
+			builder.setLength(0);
+			builder.append(json, start, index);
+			while (index < length) {
+				char current = json.charAt(index++);
+				if (current == '"') {
+					return builder.toString();
+				}
+				if (current != '\\') {
+					builder.append(current);
+					continue;
+				}
+				if (index >= length) {
+					break;
+				}
+				char escape = json.charAt(index++);
+				switch (escape) {
+					case '"':
+					case '\\':
+					case '/':
+						builder.append(escape);
+						break;
+					case 'b':
+						builder.append('\b');
+						break;
+					case 'f':
+						builder.append('\f');
+						break;
+					case 'n':
+						builder.append('\n');
+						break;
+					case 'r':
+						builder.append('\r');
+						break;
+					case 't':
+						builder.append('\t');
+						break;
+					case 'u':
+						if (index + 4 > length) {
+							throw error("invalid unicode escape");
+						}
+						int code = 0;
+						for (int i = 0; i < 4; i++) {
+							int digit = Character.digit(json.charAt(index++), 16);
+							if (digit < 0) {
+								throw error("invalid unicode escape");
+							}
+							code = (code << 4) | digit;
+						}
+						builder.append((char) code);
+						break;
+					default:
+						throw error("invalid escape '\\" + escape + "'");
+				}
 			}
-			if (current == ',' && inObject == 0 && inList == 0 && !inValue) {
-				list.add(build.toString());
-				build.setLength(0);
+			throw error("unterminated string");
+		}
+
+		private Object readNumber() {
+			int start = index;
+			boolean negative = false;
+			if (json.charAt(index) == '-') {
+				negative = true;
+				index++;
 			}
-			else if (current == '\\') {
-				inEscape = true;
+
+			// integer part, accumulate as negative to cover Long.MIN_VALUE
+			long value = 0;
+			int digits = 0;
+			boolean overflow = false;
+			while (index < length) {
+				char current = json.charAt(index);
+				if (current<'0' || current>'9') {
+					break;
+				}
+				if (digits >= 18) {
+					overflow = true;
+				}
+				value = value * 10 - (current - '0');
+				digits++;
+				index++;
 			}
-			else {
-				build.append(current);
+			if (digits == 0) {
+				throw error("invalid number");
+			}
+
+			// decimal: fraction or exponent
+			boolean decimal = false;
+			while (index < length) {
+				char current = json.charAt(index);
+				if ((current>='0' && current<='9') || current=='.' || current=='e' || current=='E' || current=='+' || current=='-') {
+					decimal = true;
+					index++;
+				} else {
+					break;
+				}
 			}
-			index++;
-		}
-		if (build.length() > 0) {
-			list.add(build.toString());
-		}
-		return list;
-	}
 
-	// plugin util
-	private static String trimTrailingCharacter(String string, char c) {
-		if (string.length() > 0 && string.charAt(string.length() - 1) == c) {
-			return string.substring(0, string.length() - 1);
+			if (!decimal && !overflow) {
+				return negative?value:-value;
+			}
+			String number = json.substring(start, index);
+			if (!decimal) {
+				try {
+					return Long.valueOf(number);
+				} catch (NumberFormatException e) {
+					// out of long range
+				}
+			}
+			try {
+				return Double.valueOf(number);
+			} catch (NumberFormatException e) {
+				throw error("invalid number '" + number + "'");
+			}
 		}
-		return string;
-	}
 
-	private static String trimLeadingCharacter(String string, char c) {
-		if (string.length() > 0 && string.charAt(0) == c) {
-			return string.substring(1);
+		private void readLiteral(String literal) {
+			if (!json.startsWith(literal, index)) {
+				throw error("invalid literal");
+			}
+			index += literal.length();
 		}
-		return string;
 	}
 
 }
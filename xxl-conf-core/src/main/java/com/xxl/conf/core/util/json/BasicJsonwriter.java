@@ -3,25 +3,38 @@ package com.xxl.conf.core.util.json;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
 import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
+ * streaming json writer, escape while writing, one linear pass
+ *
  * @author xuxueli 2018-11-30
  */
 public class BasicJsonwriter {
     private static Logger logger = LoggerFactory.getLogger(BasicJsonwriter.class);
 
 
-    private static final String STR_SLASH = "\"";
-    private static final String STR_SLASH_STR = "\":";
-    private static final String STR_COMMA = ",";
-    private static final String STR_OBJECT_LEFT = "{";
-    private static final String STR_OBJECT_RIGHT = "}";
-    private static final String STR_ARRAY_LEFT = "[";
-    private static final String STR_ARRAY_RIGHT = "]";
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+    private static final int BUFFER_MAX_REUSE = 64 * 1024;
 
-    private static final Map<String, Field[]> cacheFields = new HashMap<>();
+    /**
+     * bean fields, resolved once for each class: non-static, accessible
+     */
+    private static final ConcurrentHashMap<Class<?>, Field[]> cacheFields = new ConcurrentHashMap<Class<?>, Field[]>();
+
+    /**
+     * reusable buffer, for each thread
+     */
+    private static final ThreadLocal<StringBuilder> bufferHolder = new ThreadLocal<StringBuilder>() {
+        @Override
+        protected StringBuilder initialValue() {
+            return new StringBuilder(256);
+        }
+    };
 
     /**
      * write object to json
@@ -30,23 +43,19 @@ public class BasicJsonwriter {
      * @return
      */
     public String toJson(Object object) {
-        StringBuilder json = new StringBuilder();
+        StringBuilder json = bufferHolder.get();
+        json.setLength(0);
         try {
             writeObjItem(null, object, json);
         } catch (Exception e) {
             logger.error(e.getMessage(), e);
         }
 
-        // replace
         String str = json.toString();
-        if (str.contains("\n")) {
-            str = str.replaceAll("\\n", "\\\\n");
-        }
-        if (str.contains("\t")) {
-            str = str.replaceAll("\\t", "\\\\t");
-        }
-        if (str.contains("\r")) {
-            str = str.replaceAll("\\r", "\\\\r");
+
+        // huge buffer not hold by thread
+        if (json.capacity() > BUFFER_MAX_REUSE) {
+            bufferHolder.remove();
         }
         return str;
     }
@@ -58,116 +67,153 @@ public class BasicJsonwriter {
      * @param value
      * @param json  "key":value or value
      */
-    private void writeObjItem(String key, Object value, StringBuilder json) {
-
-        /*if ("serialVersionUID".equals(key)
-                || value instanceof Logger) {
-            // pass
-
-            return;
-        }*/
+    private void writeObjItem(String key, Object value, Appendable json) throws IOException {
 
         // "key:"
         if (key != null) {
-            json.append(STR_SLASH).append(key).append(STR_SLASH_STR);
+            writeString(key, json);
+            json.append(':');
         }
 
         // val
         if (value == null) {
             json.append("null");
-        } else if (value instanceof String
-                || value instanceof CharSequence) {
+        } else if (value instanceof CharSequence) {
             // string
 
-            json.append(STR_SLASH).append(value.toString()).append(STR_SLASH);
-        } else if (value instanceof Integer
-                || value instanceof Long
-                || value instanceof Short
-                || value instanceof Boolean
-                || value instanceof Double
-                || value instanceof Float
-                ) {
+            writeString((CharSequence) value, json);
+        } else if (value instanceof Number
+                || value instanceof Boolean) {
             // number
 
-            json.append(value);
+            json.append(value.toString());
         } else if (value instanceof Object[] || value instanceof Collection) {
-            // collection | array     //  Array.getLength(array);   // Array.get(array, i);
-
-            Collection valueColl = null;
-            if (value instanceof Object[]) {
-                Object[] valueArr = (Object[]) value;
-                valueColl = Arrays.asList(valueArr);
-            } else if (value instanceof Collection) {
-                valueColl = (Collection) value;
-            }
+            // collection | array
 
-            json.append(STR_ARRAY_LEFT);
-            if (valueColl.size() > 0) {
-                for (Object obj : valueColl) {
-                    writeObjItem(null, obj, json);
-                    json.append(STR_COMMA);
+            Collection<?> valueColl = value instanceof Object[]
+                    ?Arrays.asList((Object[]) value)
+                    :(Collection<?>) value;
+
+            json.append('[');
+            boolean first = true;
+            for (Object obj : valueColl) {
+                if (!first) {
+                    json.append(',');
                 }
-                json.delete(json.length() - 1, json.length());
+                first = false;
+                writeObjItem(null, obj, json);
             }
-            json.append(STR_ARRAY_RIGHT);
+            json.append(']');
 
         } else if (value instanceof Map) {
             // map
 
             Map<?, ?> valueMap = (Map<?, ?>) value;
 
-            json.append(STR_OBJECT_LEFT);
-            if (!valueMap.isEmpty()) {
-                Set<?> keys = valueMap.keySet();
-                for (Object valueMapItemKey : keys) {
-                    writeObjItem(valueMapItemKey.toString(), valueMap.get(valueMapItemKey), json);
-                    json.append(STR_COMMA);
+            json.append('{');
+            boolean first = true;
+            for (Map.Entry<?, ?> item : valueMap.entrySet()) {
+                if (!first) {
+                    json.append(',');
                 }
-                json.delete(json.length() - 1, json.length());
-
+                first = false;
+                writeObjItem(String.valueOf(item.getKey()), item.getValue(), json);
             }
-            json.append(STR_OBJECT_RIGHT);
+            json.append('}');
 
         } else {
             // bean
 
-            json.append(STR_OBJECT_LEFT);
-            Field[] fields = getDeclaredFields(value);
-            if (fields.length > 0) {
-                for (Field field : fields) {
-                    Object fieldObj = getFieldObject(field, value);
-                    writeObjItem(field.getName(), fieldObj, json);
-                    json.append(STR_COMMA);
+            json.append('{');
+            boolean first = true;
+            for (Field field : getDeclaredFields(value.getClass())) {
+                if (!first) {
+                    json.append(',');
                 }
-                json.delete(json.length() - 1, json.length());
+                first = false;
+                writeObjItem(field.getName(), getFieldObject(field, value), json);
             }
+            json.append('}');
+        }
+    }
 
-            json.append(STR_OBJECT_RIGHT);
+    /**
+     * write quoted string, escape '"', '\' and control char
+     */
+    private static void writeString(CharSequence value, Appendable json) throws IOException {
+        json.append('"');
+        int length = value.length();
+        int start = 0;
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c >= 0x20 && c != '"' && c != '\\') {
+                continue;
+            }
+
+            // flush plain chars, then escape
+            if (i > start) {
+                json.append(value, start, i);
+            }
+            start = i + 1;
+            switch (c) {
+                case '"':
+                    json.append("\\\"");
+                    break;
+                case '\\':
+                    json.append("\\\\");
+                    break;
+                case '\n':
+                    json.append("\\n");
+                    break;
+                case '\r':
+                    json.append("\\r");
+                    break;
+                case '\t':
+                    json.append("\\t");
+                    break;
+                case '\b':
+                    json.append("\\b");
+                    break;
+                case '\f':
+                    json.append("\\f");
+                    break;
+                default:
+                    json.append("\\u00").append(HEX_DIGITS[c >> 4]).append(HEX_DIGITS[c & 0xF]);
+            }
         }
+        if (length > start) {
+            json.append(value, start, length);
+        }
+        json.append('"');
     }
 
-    private synchronized Field[] getDeclaredFields(Object obj) {
-        String cacheKey = obj.getClass().getName();
-        if (cacheFields.containsKey(cacheKey)) {
-            return cacheFields.get(cacheKey);
+    private static Field[] getDeclaredFields(Class<?> clazz) {
+        Field[] fields = cacheFields.get(clazz);
+        if (fields != null) {
+            return fields;
         }
-        Field[] fields = obj.getClass().getDeclaredFields();
-        cacheFields.put(cacheKey, fields);
-        return fields;
+
+        List<Field> fieldList = new ArrayList<Field>();
+        for (Field field : clazz.getDeclaredFields()) {
+            if (Modifier.isStatic(field.getModifiers()) || field.isSynthetic()) {
+                continue;
+            }
+            field.setAccessible(true);
+            fieldList.add(field);
+        }
+        fields = fieldList.toArray(new Field[fieldList.size()]);
+
+        Field[] existFields = cacheFields.putIfAbsent(clazz, fields);
+        return existFields!=null?existFields:fields;
     }
 
-    private synchronized Object getFieldObject(Field field, Object obj) {
+    private static Object getFieldObject(Field field, Object obj) {
         try {
-            field.setAccessible(true);
             return field.get(obj);
         } catch (IllegalArgumentException | IllegalAccessException e) {
             logger.error(e.getMessage(), e);
             return null;
-        } finally {
-            field.setAccessible(false);
         }
     }
 
-
-
-}
\ No newline at end of file
+}
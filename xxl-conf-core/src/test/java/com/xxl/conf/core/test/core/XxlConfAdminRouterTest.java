@@ -0,0 +1,180 @@
+package com.xxl.conf.core.test.core;
+
+import com.xxl.conf.core.core.XxlConfAdminRouter;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.reflect.Field;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+/**
+ * XxlConfAdminRouter: circuit open, half-open probe, all-open fallback
+ */
+public class XxlConfAdminRouterTest {
+
+    private XxlConfAdminRouter router;
+    private XxlConfAdminRouter.Node nodeA;
+    private XxlConfAdminRouter.Node nodeB;
+
+    @Before
+    public void setUp() {
+        router = new XxlConfAdminRouter("http://a:8080/xxl-conf-admin/, http://b:8080/xxl-conf-admin,http://a:8080/xxl-conf-admin");
+        nodeA = router.getNodes().get(0);
+        nodeB = router.getNodes().get(1);
+    }
+
+    private static void failRequest(XxlConfAdminRouter.Node node, int count) {
+        for (int i = 0; i < count; i++) {
+            node.onStart();
+            node.onFail(true);
+        }
+    }
+
+    private static void setField(XxlConfAdminRouter.Node node, String name, long value) throws Exception {
+        Field field = XxlConfAdminRouter.Node.class.getDeclaredField(name);
+        field.setAccessible(true);
+        field.setLong(node, value);
+    }
+
+    private static long getField(XxlConfAdminRouter.Node node, String name) throws Exception {
+        Field field = XxlConfAdminRouter.Node.class.getDeclaredField(name);
+        field.setAccessible(true);
+        return field.getLong(node);
+    }
+
+    /**
+     * open time passed, half-open
+     */
+    private static void expireOpen(XxlConfAdminRouter.Node node) throws Exception {
+        setField(node, "openUntil", System.currentTimeMillis() - 1);
+    }
+
+    private Set<XxlConfAdminRouter.Node> none() {
+        return new HashSet<>();
+    }
+
+    // ---------------------- address ----------------------
+
+    @Test
+    public void parseAddress() {
+        assertEquals(2, router.getNodes().size());
+        assertEquals("http://a:8080/xxl-conf-admin", nodeA.getAddress());
+        assertEquals("http://b:8080/xxl-conf-admin", nodeB.getAddress());
+    }
+
+    @Test
+    public void failOver() {
+        assertSame(nodeB, router.select(Collections.singleton(nodeA)));
+        assertNull(router.select(new HashSet<>(router.getNodes())));
+    }
+
+    // ---------------------- circuit ----------------------
+
+    @Test
+    public void openAfterContinuousFail() {
+        failRequest(nodeA, 2);
+        assertFalse(nodeA.isOpen());
+
+        failRequest(nodeA, 1);
+        assertTrue(nodeA.isOpen());
+        assertEquals(0, nodeA.getInflight());
+        for (int i = 0; i < 50; i++) {
+            assertSame(nodeB, router.select(none()));
+        }
+    }
+
+    @Test
+    public void successResetFailCount() {
+        failRequest(nodeA, 2);
+        nodeA.onStart();
+        nodeA.onSuccess(10);
+        failRequest(nodeA, 2);
+        assertFalse(nodeA.isOpen());
+    }
+
+    @Test
+    public void ignoreNotCounted() {
+        for (int i = 0; i < 5; i++) {
+            nodeA.onStart();
+            nodeA.onIgnore(true);
+        }
+        assertFalse(nodeA.isOpen());
+        assertEquals(0, nodeA.getInflight());
+    }
+
+    // ---------------------- half-open ----------------------
+
+    @Test
+    public void halfOpenProbeClose() throws Exception {
+        failRequest(nodeA, 3);
+        expireOpen(nodeA);
+
+        // one probe only
+        assertSame(nodeA, router.select(none()));
+        for (int i = 0; i < 20; i++) {
+            assertSame(nodeB, router.select(none()));
+        }
+
+        // probe success, closed
+        nodeA.onStart();
+        nodeA.onSuccess(10);
+        assertFalse(nodeA.isOpen());
+    }
+
+    @Test
+    public void halfOpenProbeFail() throws Exception {
+        failRequest(nodeA, 3);
+        long firstOpen = getField(nodeA, "openUntil") - getField(nodeA, "openedAt");
+        expireOpen(nodeA);
+
+        assertSame(nodeA, router.select(none()));
+        nodeA.onStart();
+        nodeA.onFail(true);
+
+        // reopened, open time doubled
+        assertTrue(nodeA.isOpen());
+        assertEquals(firstOpen * 2, getField(nodeA, "openUntil") - getField(nodeA, "openedAt"));
+        assertSame(nodeB, router.select(none()));
+    }
+
+    @Test
+    public void halfOpenProbeIgnored() throws Exception {
+        failRequest(nodeA, 3);
+        expireOpen(nodeA);
+
+        assertSame(nodeA, router.select(none()));
+        nodeA.onIgnore(false);
+
+        // probe released, next request probes again
+        assertTrue(nodeA.isOpen());
+        assertSame(nodeA, router.select(none()));
+    }
+
+    @Test
+    public void halfOpenSkippedWithoutProbe() throws Exception {
+        failRequest(nodeA, 3);
+        expireOpen(nodeA);
+
+        for (int i = 0; i < 20; i++) {
+            assertSame(nodeB, router.select(none(), false));
+        }
+    }
+
+    // ---------------------- all open ----------------------
+
+    @Test
+    public void allOpenFallback() throws Exception {
+        failRequest(nodeA, 3);
+        failRequest(nodeB, 3);
+        setField(nodeA, "openedAt", getField(nodeB, "openedAt") + 1000);
+
+        // least-recently-opened tried first, no fail over among open nodes
+        assertSame(nodeB, router.select(none()));
+        assertNull(router.select(Collections.singleton(nodeB)));
+    }
+
+}
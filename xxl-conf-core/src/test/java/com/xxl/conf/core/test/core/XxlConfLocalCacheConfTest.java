@@ -0,0 +1,121 @@
+package com.xxl.conf.core.test.core;
+
+import com.xxl.conf.core.XxlConfClient;
+import com.xxl.conf.core.core.XxlConfLocalCacheConf;
+import com.xxl.conf.core.core.XxlConfRemoteConf;
+import com.xxl.conf.core.transport.XxlConfTransport;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ * XxlConfLocalCacheConf: single-flight miss loading
+ */
+public class XxlConfLocalCacheConfTest {
+
+    /**
+     * fake admin, find replied after delay; null value means request fail
+     */
+    private static class CountTransport implements XxlConfTransport {
+        private final AtomicInteger findCount = new AtomicInteger();
+        private volatile String response;
+
+        @Override
+        public String post(String url, String requestBody, int connectTimeout, int readTimeout) {
+            findCount.incrementAndGet();
+            try {
+                TimeUnit.MILLISECONDS.sleep(100);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return response;
+        }
+
+        @Override
+        public void destroy() {
+        }
+    }
+
+    private CountTransport transport;
+
+    private static void setStatic(String name, Object value) throws Exception {
+        Field field = XxlConfLocalCacheConf.class.getDeclaredField(name);
+        field.setAccessible(true);
+        field.set(null, value);
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        // empty cache, refresh thread not started
+        setStatic("localCacheRepository", new ConcurrentHashMap<String, XxlConfLocalCacheConf.CacheNode>());
+        setStatic("refreshThread", new Thread());
+        XxlConfLocalCacheConf.setMissPolicy(XxlConfLocalCacheConf.MISS_POLICY.BLOCKING, 100);
+
+        transport = new CountTransport();
+        XxlConfRemoteConf.init("http://127.0.0.1:8080/xxl-conf-admin", "test", null);
+        XxlConfRemoteConf.setTransport(transport);
+    }
+
+    private List<String> concurrentGet(final String key, int threadCount) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+        try {
+            final CountDownLatch startLatch = new CountDownLatch(1);
+            List<Future<String>> futures = new ArrayList<>();
+            for (int i = 0; i < threadCount; i++) {
+                futures.add(executor.submit(new Callable<String>() {
+                    @Override
+                    public String call() throws Exception {
+                        startLatch.await();
+                        return XxlConfClient.get(key, "default");
+                    }
+                }));
+            }
+            startLatch.countDown();
+
+            List<String> values = new ArrayList<>();
+            for (Future<String> future: futures) {
+                values.add(future.get(5, TimeUnit.SECONDS));
+            }
+            return values;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void singleFlight() throws Exception {
+        transport.response = "{\"code\":200,\"data\":{\"default.miss01\":\"value01\"}}";
+
+        for (String value: concurrentGet("default.miss01", 8)) {
+            assertEquals("value01", value);
+        }
+        assertEquals(1, transport.findCount.get());
+
+        // cached, no more find
+        assertEquals("value01", XxlConfClient.get("default.miss01", "default"));
+        assertEquals(1, transport.findCount.get());
+    }
+
+    @Test
+    public void remoteFailNotCached() throws Exception {
+        transport.response = null;
+
+        for (String value: concurrentGet("default.miss02", 8)) {
+            assertEquals("default", value);
+        }
+        assertEquals(1, transport.findCount.get());
+
+        // retry on next miss
+        transport.response = "{\"code\":200,\"data\":{\"default.miss02\":\"value02\"}}";
+        assertEquals("value02", XxlConfClient.get("default.miss02", "default"));
+        assertEquals(2, transport.findCount.get());
+    }
+
+}
@@ -0,0 +1,190 @@
+package com.xxl.conf.core.test.core;
+
+import com.xxl.conf.core.core.XxlConfRemoteConf;
+import com.xxl.conf.core.model.XxlConfDataVO;
+import com.xxl.conf.core.transport.XxlConfTransport;
+import com.xxl.conf.core.transport.XxlConfTransportException;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ * XxlConfRemoteConf: response of legacy admin (baseline format) and revision-aware admin, hedged find
+ */
+public class XxlConfRemoteConfTest {
+
+    /**
+     * fake admin, response by uri; unknown uri rejected (404)
+     */
+    private static class FakeTransport implements XxlConfTransport {
+        private final Map<String, String> responses = new HashMap<>();
+
+        @Override
+        public String post(String url, String requestBody, int connectTimeout, int readTimeout) {
+            for (Map.Entry<String, String> item: responses.entrySet()) {
+                if (url.endsWith(item.getKey())) {
+                    return item.getValue();
+                }
+            }
+            throw new XxlConfTransportException("http request StatusCode(404) invalid. for url : " + url);
+        }
+
+        @Override
+        public void destroy() {
+        }
+    }
+
+    private FakeTransport transport;
+    private Set<String> keys = new HashSet<>(Arrays.asList("default.key01", "default.key02"));
+
+    /**
+     * fake admin, each find replied after delay
+     */
+    private static class SlowTransport implements XxlConfTransport {
+        private final AtomicInteger requestCount = new AtomicInteger();
+        private final long delay;
+
+        private SlowTransport(long delay) {
+            this.delay = delay;
+        }
+
+        @Override
+        public String post(String url, String requestBody, int connectTimeout, int readTimeout) {
+            requestCount.incrementAndGet();
+            try {
+                TimeUnit.MILLISECONDS.sleep(delay);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return "{\"code\":200,\"data\":{\"revision\":1,\"data\":{},\"revisions\":{}}}";
+        }
+
+        @Override
+        public void destroy() {
+        }
+    }
+
+    @Before
+    public void setUp() {
+        transport = new FakeTransport();
+        XxlConfRemoteConf.init("http://127.0.0.1:8080/xxl-conf-admin", "test", null);
+        XxlConfRemoteConf.setTransport(transport);
+    }
+
+    @After
+    public void tearDown() {
+        XxlConfRemoteConf.setHedge(0, 0.1);
+    }
+
+    // ---------------------- legacy admin ----------------------
+
+    @Test
+    public void legacyFind() {
+        transport.responses.put("/conf/find", "{\"code\":200,\"msg\":null,\"data\":{\"default.key01\":\"value01\",\"default.key02\":null}}");
+
+        XxlConfDataVO dataVO = XxlConfRemoteConf.find(keys, 100);
+        assertNotNull(dataVO);
+        assertEquals(-1, dataVO.getRevision());
+        assertEquals(2, dataVO.getData().size());
+        assertEquals("value01", dataVO.getData().get("default.key01"));
+        assertNull(dataVO.getData().get("default.key02"));
+
+        assertEquals("value01", XxlConfRemoteConf.find("default.key01"));
+    }
+
+    @Test
+    public void legacyFindKeyNamedRevision() {
+        transport.responses.put("/conf/find", "{\"code\":200,\"msg\":null,\"data\":{\"revision\":\"1\",\"data\":\"2\"}}");
+
+        XxlConfDataVO dataVO = XxlConfRemoteConf.find(new HashSet<>(Arrays.asList("revision", "data")), -1);
+        assertEquals(-1, dataVO.getRevision());
+        assertEquals("1", dataVO.getData().get("revision"));
+        assertEquals("2", dataVO.getData().get("data"));
+    }
+
+    @Test
+    public void legacyMonitorUpdated() {
+        transport.responses.put("/conf/monitor", "{\"code\":200,\"msg\":\"Monitor key update.\",\"data\":null}");
+
+        XxlConfDataVO dataVO = XxlConfRemoteConf.monitor(keys, 100);
+        assertNotNull(dataVO);
+        assertNull(dataVO.getData());       // find required
+    }
+
+    @Test
+    public void legacyMonitorTimeout() {
+        transport.responses.put("/conf/monitor", "{\"code\":200,\"msg\":\"Monitor timeout, no key updated.\"}");
+
+        XxlConfDataVO dataVO = XxlConfRemoteConf.monitor(keys, 100);
+        assertNotNull(dataVO);
+        assertNull(dataVO.getData());
+    }
+
+    @Test
+    public void legacyMonitorFail() {
+        transport.responses.put("/conf/monitor", "{\"code\":500,\"msg\":\"AccessToken Invalid.\"}");
+
+        assertNull(XxlConfRemoteConf.monitor(keys, 100));
+    }
+
+    // ---------------------- revision-aware admin ----------------------
+
+    @Test
+    public void findSinceRevision() {
+        transport.responses.put("/conf/find", "{\"code\":200,\"data\":{\"revision\":120,\"data\":{\"default.key01\":\"value01\"},\"revisions\":{\"default.key01\":118}}}");
+
+        XxlConfDataVO dataVO = XxlConfRemoteConf.find(keys, 100);
+        assertEquals(120, dataVO.getRevision());
+        assertEquals(Collections.singletonMap("default.key01", "value01"), dataVO.getData());
+        assertEquals(Long.valueOf(118), dataVO.getRevisions().get("default.key01"));
+    }
+
+    @Test
+    public void monitorInline() {
+        transport.responses.put("/conf/monitor", "{\"code\":200,\"data\":{\"revision\":100,\"data\":{},\"revisions\":{}}}");
+
+        XxlConfDataVO dataVO = XxlConfRemoteConf.monitor(keys, 100);
+        assertEquals(100, dataVO.getRevision());
+        assertEquals(0, dataVO.getData().size());
+    }
+
+    // ---------------------- hedge ----------------------
+
+    /**
+     * find with slow admin nodes, return request count (primary and hedged)
+     */
+    private int slowFind(int findCount) throws InterruptedException {
+        SlowTransport slowTransport = new SlowTransport(30);
+        XxlConfRemoteConf.init("http://127.0.0.1:8080/xxl-conf-admin,http://127.0.0.2:8080/xxl-conf-admin", "test", null);
+        XxlConfRemoteConf.setTransport(slowTransport);
+
+        for (int i = 0; i < findCount; i++) {
+            assertNotNull(XxlConfRemoteConf.find(keys, -1));
+        }
+        TimeUnit.MILLISECONDS.sleep(100);       // hedged request lost the race, still in flight
+        return slowTransport.requestCount.get();
+    }
+
+    @Test
+    public void hedgeDisabled() throws InterruptedException {
+        XxlConfRemoteConf.setHedge(0, 0.5);
+        assertEquals(20, slowFind(20));
+    }
+
+    @Test
+    public void hedgeWithinBudget() throws InterruptedException {
+        XxlConfRemoteConf.setHedge(5, 0.2);
+
+        // each find earns 0.2 token, burst at most 10 token saved
+        int hedgeCount = slowFind(50) - 50;
+        assertTrue("hedge count " + hedgeCount, hedgeCount >= 9);
+        assertTrue("hedge count " + hedgeCount, hedgeCount <= 20);
+    }
+
+}
@@ -0,0 +1,146 @@
+package com.xxl.conf.core.test.json;
+
+import com.xxl.conf.core.util.json.BasicJson;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * BasicJsonReader: escapes, numbers, nested values, malformed input
+ */
+public class BasicJsonReaderTest {
+
+    private static Object value(String json) {
+        return BasicJson.parseList("[" + json + "]").get(0);
+    }
+
+    // ---------------------- string ----------------------
+
+    @Test
+    public void escape() {
+        assertEquals("a\"b\\c/d", value("\"a\\\"b\\\\c\\/d\""));
+        assertEquals("\b\f\n\r\t", value("\"\\b\\f\\n\\r\\t\""));
+        assertEquals("plain", value("\"plain\""));
+        assertEquals("", value("\"\""));
+    }
+
+    @Test
+    public void unicodeEscape() {
+        assertEquals("A\u0000\u001f中", value("\"\\u0041\\u0000\\u001F\\u4e2d\""));
+        assertEquals("\ud83d\ude00", value("\"\\ud83d\\ude00\""));
+        assertEquals("中文", value("\"中文\""));
+    }
+
+    // ---------------------- number ----------------------
+
+    @Test
+    public void integer() {
+        assertEquals(0L, value("0"));
+        assertEquals(-1L, value("-1"));
+        assertEquals(200L, value("200"));
+        assertEquals(Long.MAX_VALUE, value(String.valueOf(Long.MAX_VALUE)));
+        assertEquals(Long.MIN_VALUE, value(String.valueOf(Long.MIN_VALUE)));
+    }
+
+    @Test
+    public void integerOverflow() {
+        assertEquals(9223372036854775808d, value("9223372036854775808"));
+        assertEquals(-9223372036854775809d, value("-9223372036854775809"));
+        assertEquals(1e20d, value("100000000000000000000"));
+    }
+
+    @Test
+    public void decimal() {
+        assertEquals(1.5d, value("1.5"));
+        assertEquals(-0.25d, value("-0.25"));
+        assertEquals(1e3d, value("1e3"));
+        assertEquals(1.5e-3d, value("1.5E-3"));
+        assertEquals(2e10d, value("2e+10"));
+    }
+
+    @Test
+    public void literal() {
+        assertEquals(Boolean.TRUE, value("true"));
+        assertEquals(Boolean.FALSE, value("false"));
+        assertNull(value("null"));
+    }
+
+    // ---------------------- nested ----------------------
+
+    @Test
+    public void nested() {
+        Map<String, Object> map = BasicJson.parseMap(" { \"code\" : 200 , \"data\" : { \"list\" : [ [ ] , [ 1 , \"a\" , null ] , { } ] , \"nil\" : null } } ");
+        assertEquals(200L, map.get("code"));
+
+        Map<?, ?> data = (Map<?, ?>) map.get("data");
+        assertTrue(data.containsKey("nil"));
+        assertNull(data.get("nil"));
+
+        List<?> list = (List<?>) data.get("list");
+        assertEquals(Collections.emptyList(), list.get(0));
+        assertEquals(Arrays.asList(1L, "a", null), list.get(1));
+        assertEquals(Collections.emptyMap(), list.get(2));
+    }
+
+    @Test
+    public void keyOrder() {
+        Map<String, Object> map = BasicJson.parseMap("{\"b\":1,\"a\":2,\"c\":3}");
+        assertEquals(Arrays.asList("b", "a", "c"), Arrays.asList(map.keySet().toArray()));
+    }
+
+    // ---------------------- malformed ----------------------
+
+    @Test
+    public void malformed() {
+        String[] jsons = {
+                "",
+                "   ",
+                "[",
+                "[1,]",
+                "[,1]",
+                "[1 2]",
+                "{\"a\":1,}",
+                "{\"a\"}",
+                "{a:1}",
+                "{\"a\":1}}",
+                "[\"abc]",
+                "[\"abc\\\"]",
+                "[\"\\x\"]",
+                "[\"\\u12\"]",
+                "[\"\\u12zz\"]",
+                "[tru]",
+                "[nul]",
+                "[-]",
+                "[1.2.3]",
+                "{\"a\":1} x",
+        };
+        for (String json: jsons) {
+            try {
+                if (json.trim().startsWith("{")) {
+                    BasicJson.parseMap(json);
+                } else {
+                    BasicJson.parseList(json);
+                }
+                fail("malformed json parsed: " + json);
+            } catch (IllegalArgumentException e) {
+                // expected
+            }
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void nullJson() {
+        BasicJson.parseMap(null);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void typeMismatch() {
+        BasicJson.parseMap("[1]");
+    }
+
+}
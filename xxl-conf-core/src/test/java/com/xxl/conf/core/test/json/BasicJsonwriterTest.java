@@ -0,0 +1,93 @@
+package com.xxl.conf.core.test.json;
+
+import com.xxl.conf.core.util.json.BasicJson;
+import org.junit.Test;
+
+import java.util.*;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * BasicJsonwriter: escaping and nested values
+ */
+public class BasicJsonwriterTest {
+
+    @Test
+    public void quoteAndBackslash() {
+        assertEquals("\"a\\\"b\\\\c\"", BasicJson.toJson("a\"b\\c"));
+        assertEquals("\"\\\\\\\"\"", BasicJson.toJson("\\\""));
+    }
+
+    @Test
+    public void controlChar() {
+        assertEquals("\"\\n\\r\\t\\b\\f\"", BasicJson.toJson("\n\r\t\b\f"));
+        assertEquals("\"a\\u0000b\\u001fc\\u0001\"", BasicJson.toJson("a\u0000b\u001fc\u0001"));
+    }
+
+    @Test
+    public void nonAsciiNotEscaped() {
+        assertEquals("\"中文\u007f\u2028\"", BasicJson.toJson("中文\u007f\u2028"));
+    }
+
+    @Test
+    public void escapedKey() {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("k\"\n", "v");
+        assertEquals("{\"k\\\"\\n\":\"v\"}", BasicJson.toJson(map));
+    }
+
+    @Test
+    public void nestedNullAndCollection() {
+        Map<String, Object> inner = new LinkedHashMap<>();
+        inner.put("nil", null);
+        inner.put("empty", new ArrayList<Object>());
+        inner.put("arr", new Object[]{1, null, "x"});
+
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("list", Arrays.asList(null, Arrays.asList(1L, 2.5d), Collections.emptyMap()));
+        map.put("map", inner);
+        map.put("bool", true);
+
+        assertEquals("{\"list\":[null,[1,2.5],{}],\"map\":{\"nil\":null,\"empty\":[],\"arr\":[1,null,\"x\"]},\"bool\":true}",
+                BasicJson.toJson(map));
+        assertEquals("null", BasicJson.toJson(null));
+    }
+
+    @Test
+    public void bean() {
+        assertEquals("{\"name\":\"a\\tb\",\"values\":[\"x\",null],\"child\":null}",
+                BasicJson.toJson(new Bean("a\tb", Arrays.asList("x", null), null)));
+    }
+
+    @Test
+    public void roundTrip() {
+        StringBuilder value = new StringBuilder();
+        for (char c = 0; c < 0x80; c++) {
+            value.append(c);
+        }
+        value.append("中文\uffff");
+
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("value", value.toString());
+        map.put("list", Arrays.asList("\"", "\\", null));
+
+        Map<String, Object> result = BasicJson.parseMap(BasicJson.toJson(map));
+        assertEquals(value.toString(), result.get("value"));
+        assertEquals(Arrays.asList("\"", "\\", null), result.get("list"));
+    }
+
+    public static class Bean {
+        private static final String IGNORED = "static";
+
+        private String name;
+        private List<String> values;
+        private Bean child;
+
+        public Bean(String name, List<String> values, Bean child) {
+            this.name = name;
+            this.values = values;
+            this.child = child;
+        }
+    }
+
+}
@@ -0,0 +1,253 @@
+package com.xxl.conf.core.test.listener;
+
+import com.xxl.conf.core.core.XxlConfLocalCacheConf;
+import com.xxl.conf.core.listener.XxlConfBatchListener;
+import com.xxl.conf.core.listener.XxlConfListener;
+import com.xxl.conf.core.listener.XxlConfListenerFactory;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ * XxlConfListenerFactory: async dispatch, each key in order, listener of all key serial, batch after listener of its keys
+ */
+public class XxlConfListenerFactoryTest {
+
+    private ExecutorService executor;
+
+    @Before
+    public void setUp() throws Exception {
+        // first use of key listener served by local cache, no remote find
+        Field field = XxlConfLocalCacheConf.class.getDeclaredField("localCacheRepository");
+        field.setAccessible(true);
+        if (field.get(null) == null) {
+            field.set(null, new ConcurrentHashMap<String, XxlConfLocalCacheConf.CacheNode>());
+        }
+        @SuppressWarnings("unchecked")
+        Map<String, XxlConfLocalCacheConf.CacheNode> cache = (Map<String, XxlConfLocalCacheConf.CacheNode>) field.get(null);
+        for (String key: new String[]{"order.key01", "order.key02", "order.key03", "parallel.key01", "parallel.key02", "batch.key01", "batch.key02"}) {
+            cache.put(key, new XxlConfLocalCacheConf.CacheNode("init"));
+        }
+
+        executor = Executors.newFixedThreadPool(8);
+        XxlConfListenerFactory.setDispatchExecutor(executor);
+    }
+
+    @After
+    public void tearDown() throws InterruptedException {
+        XxlConfListenerFactory.setDispatchExecutor(null);
+        executor.shutdown();
+        executor.awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    /**
+     * record value of key, first invoke on add skipped
+     */
+    private static class RecordListener implements XxlConfListener {
+        private final List<String> values = Collections.synchronizedList(new ArrayList<String>());
+        private final CountDownLatch latch;
+
+        private RecordListener(int count) {
+            this.latch = new CountDownLatch(count);
+        }
+
+        @Override
+        public void onChange(String key, String value) throws Exception {
+            if ("init".equals(value)) {
+                return;
+            }
+            values.add(value);
+            latch.countDown();
+        }
+    }
+
+    @Test
+    public void keyInOrder() throws Exception {
+        String[] keys = {"order.key01", "order.key02", "order.key03"};
+        List<RecordListener> listeners = new ArrayList<>();
+        for (String key: keys) {
+            RecordListener listener = new RecordListener(100);
+            XxlConfListenerFactory.addListener(key, listener);
+            listeners.add(listener);
+        }
+
+        List<String> expected = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            expected.add("value" + i);
+            for (String key: keys) {
+                XxlConfListenerFactory.onChange(key, "value" + i);
+            }
+        }
+
+        for (RecordListener listener: listeners) {
+            assertTrue(listener.latch.await(5, TimeUnit.SECONDS));
+            assertEquals(expected, listener.values);
+        }
+    }
+
+    @Test
+    public void keyInParallel() throws Exception {
+        final CountDownLatch blockLatch = new CountDownLatch(1);
+        final CountDownLatch key02Latch = new CountDownLatch(1);
+        XxlConfListenerFactory.addListener("parallel.key01", new XxlConfListener() {
+            @Override
+            public void onChange(String key, String value) throws Exception {
+                if (!"init".equals(value)) {
+                    blockLatch.await(5, TimeUnit.SECONDS);
+                }
+            }
+        });
+        XxlConfListenerFactory.addListener("parallel.key02", new XxlConfListener() {
+            @Override
+            public void onChange(String key, String value) throws Exception {
+                if (!"init".equals(value)) {
+                    key02Latch.countDown();
+                }
+            }
+        });
+
+        // slow listener of one key, not block others
+        XxlConfListenerFactory.onChange("parallel.key01", "value01");
+        XxlConfListenerFactory.onChange("parallel.key02", "value02");
+        assertTrue(key02Latch.await(2, TimeUnit.SECONDS));
+        blockLatch.countDown();
+    }
+
+    @Test
+    public void noKeyListenerSerial() throws Exception {
+        final AtomicInteger active = new AtomicInteger();
+        final AtomicInteger maxActive = new AtomicInteger();
+        final List<String> keys = Collections.synchronizedList(new ArrayList<String>());
+        final CountDownLatch latch = new CountDownLatch(30);
+        XxlConfListenerFactory.addListener(null, new XxlConfListener() {
+            @Override
+            public void onChange(String key, String value) throws Exception {
+                if (!key.startsWith("serial.")) {
+                    return;
+                }
+                int current = active.incrementAndGet();
+                if (current > maxActive.get()) {
+                    maxActive.set(current);
+                }
+                TimeUnit.MILLISECONDS.sleep(2);
+                keys.add(key);
+                active.decrementAndGet();
+                latch.countDown();
+            }
+        });
+
+        // different keys, listener of all key called one at a time, in change order
+        List<String> expected = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            expected.add("serial.key" + i);
+            XxlConfListenerFactory.onChange("serial.key" + i, "value");
+        }
+
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        assertEquals(1, maxActive.get());
+        assertEquals(expected, keys);
+    }
+
+    // ---------------------- batch ----------------------
+
+    @Test
+    public void batchAfterListener() throws Exception {
+        final List<String> events = Collections.synchronizedList(new ArrayList<String>());
+        XxlConfListener slowListener = new XxlConfListener() {
+            @Override
+            public void onChange(String key, String value) throws Exception {
+                if (key.startsWith("batch.") && !"init".equals(value)) {
+                    TimeUnit.MILLISECONDS.sleep(20);
+                    events.add(key + "=" + value);
+                }
+            }
+        };
+        XxlConfListenerFactory.addListener("batch.key01", slowListener);
+        XxlConfListenerFactory.addListener("batch.key02", slowListener);
+        XxlConfListenerFactory.addListener(null, new XxlConfListener() {
+            @Override
+            public void onChange(String key, String value) throws Exception {
+                if (key.startsWith("batch.")) {
+                    TimeUnit.MILLISECONDS.sleep(20);
+                    events.add("all:" + key);
+                }
+            }
+        });
+
+        final CountDownLatch latch = new CountDownLatch(1);
+        XxlConfListenerFactory.addBatchListener(new XxlConfBatchListener() {
+            @Override
+            public void onChange(Map<String, String> oldValues, Map<String, String> newValues) throws Exception {
+                if (newValues.containsKey("batch.key01")) {
+                    events.add("batch");
+                    latch.countDown();
+                }
+            }
+        });
+
+        Map<String, String> oldValues = new HashMap<>();
+        Map<String, String> newValues = new HashMap<>();
+        for (String key: new String[]{"batch.key01", "batch.key02"}) {
+            oldValues.put(key, "init");
+            newValues.put(key, "value");
+            XxlConfListenerFactory.onChange(key, "value");
+        }
+        XxlConfListenerFactory.onBatchChange(oldValues, newValues);
+
+        // listener of each key and of all key finished first
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        assertEquals(5, events.size());
+        assertEquals("batch", events.get(4));
+    }
+
+    @Test
+    public void batchInOrder() throws Exception {
+        final List<String> batches = Collections.synchronizedList(new ArrayList<String>());
+        final CountDownLatch latch = new CountDownLatch(10);
+        XxlConfListenerFactory.addBatchListener(new XxlConfBatchListener() {
+            @Override
+            public void onChange(Map<String, String> oldValues, Map<String, String> newValues) throws Exception {
+                if (newValues.containsKey("batchorder.key")) {
+                    batches.add(newValues.get("batchorder.key"));
+                    latch.countDown();
+                }
+            }
+        });
+        XxlConfListenerFactory.addListener(null, new XxlConfListener() {
+            @Override
+            public void onChange(String key, String value) throws Exception {
+                // first batch slow, later batch of other keys ready earlier
+                if ("batchorder.slow".equals(key)) {
+                    TimeUnit.MILLISECONDS.sleep(100);
+                }
+            }
+        });
+
+        List<String> expected = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            String key = i==0?"batchorder.slow":("batchorder.key" + i);
+            Map<String, String> newValues = new HashMap<>();
+            newValues.put(key, "value");
+            newValues.put("batchorder.key", "batch" + i);
+            XxlConfListenerFactory.onChange(key, "value");
+            XxlConfListenerFactory.onBatchChange(new HashMap<String, String>(), newValues);
+            expected.add("batch" + i);
+        }
+
+        // a batch never overtakes the earlier one
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        assertEquals(expected, batches);
+    }
+
+}
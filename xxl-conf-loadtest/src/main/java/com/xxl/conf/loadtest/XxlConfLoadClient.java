@@ -0,0 +1,148 @@
+package com.xxl.conf.loadtest;
+
+import com.xxl.conf.core.model.XxlConfParamVO;
+import com.xxl.conf.core.transport.XxlConfTransport;
+import com.xxl.conf.core.transport.XxlConfTransportException;
+import com.xxl.conf.core.util.KeyDigestUtil;
+import com.xxl.conf.core.util.json.BasicJson;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * simulated client, long polling "/conf/monitor" by session and apply changed conf inline (same protocol as XxlConfRemoteConf)
+ *
+ * conf value is the publish timestamp, applied latency = applied time - publish time
+ */
+public class XxlConfLoadClient implements Runnable {
+
+    private static final int CONNECT_TIMEOUT = 3 * 1000;
+    private static final int FIND_READ_TIMEOUT = 5 * 1000;
+    private static final int MONITOR_READ_TIMEOUT = 60 * 1000;
+    private static final int SESSION_INVALID_CODE = 410;
+
+    private final String adminAddress;
+    private final String env;
+    private final List<String> keys;
+    private final XxlConfTransport transport;
+    private final XxlConfLoadReport report;
+
+    private volatile boolean stop = false;
+    private long revision = -1;
+    private final Map<String, String> confData = new HashMap<>();
+    private String sessionId;
+    private String digest;
+
+    public XxlConfLoadClient(String adminAddress, String env, List<String> keys, XxlConfTransport transport, XxlConfLoadReport report) {
+        this.adminAddress = adminAddress;
+        this.env = env;
+        this.keys = keys;
+        this.transport = transport;
+        this.report = report;
+    }
+
+    public void stop() {
+        stop = true;
+    }
+
+    @Override
+    public void run() {
+        // preload, not measured
+        find(false);
+
+        while (!stop) {
+            if (sessionId == null) {
+                session();
+            }
+            boolean success = monitor();
+            if (stop) {
+                break;
+            }
+            if (!success) {
+                report.recordFail();
+                try {
+                    TimeUnit.SECONDS.sleep(1);
+                } catch (InterruptedException e) {
+                    break;
+                }
+            }
+        }
+    }
+
+    private void session() {
+        Map<String, Object> respObj = post("/conf/session", FIND_READ_TIMEOUT);
+        if (respObj!=null && respObj.get("data") instanceof Map) {
+            Map<String, Object> dataObj = (Map<String, Object>) respObj.get("data");
+            if (KeyDigestUtil.digest(new HashSet<String>(keys)).equals(dataObj.get("digest"))) {
+                sessionId = String.valueOf(dataObj.get("sessionId"));
+                digest = String.valueOf(dataObj.get("digest"));
+            }
+        }
+    }
+
+    private boolean monitor() {
+        Map<String, Object> respObj = post("/conf/monitor", MONITOR_READ_TIMEOUT);
+        if (respObj==null || !(respObj.get("data") instanceof Map)) {
+            return false;
+        }
+        apply((Map<String, Object>) respObj.get("data"), true);
+        return true;
+    }
+
+    private void find(boolean measure) {
+        Map<String, Object> respObj = post("/conf/find", FIND_READ_TIMEOUT);
+        if (respObj==null || !(respObj.get("data") instanceof Map)) {
+            report.recordFail();
+            return;
+        }
+        apply((Map<String, Object>) respObj.get("data"), measure);
+    }
+
+    private void apply(Map<String, Object> dataVO, boolean measure) {
+        long appliedTime = System.currentTimeMillis();
+
+        if (dataVO.get("data") instanceof Map) {
+            for (Map.Entry<String, Object> item: ((Map<String, Object>) dataVO.get("data")).entrySet()) {
+                String value = item.getValue()!=null?String.valueOf(item.getValue()):null;
+                String oldValue = confData.put(item.getKey(), value);
+                if (measure && value!=null && !value.equals(oldValue) && value.length()>0) {
+                    report.recordApplied(appliedTime - Long.parseLong(value));
+                }
+            }
+        }
+        if (dataVO.get("revision") instanceof Number) {
+            revision = Math.max(revision, ((Number) dataVO.get("revision")).longValue());
+        }
+    }
+
+    private Map<String, Object> post(String uri, int readTimeout) {
+        XxlConfParamVO paramVO = new XxlConfParamVO();
+        paramVO.setEnv(env);
+        paramVO.setRevision(revision);
+        if (sessionId!=null && "/conf/monitor".equals(uri)) {
+            paramVO.setSessionId(sessionId);
+            paramVO.setDigest(digest);
+        } else {
+            paramVO.setKeys(keys);
+        }
+
+        String respJson = null;
+        try {
+            respJson = transport.post(adminAddress + uri, BasicJson.toJson(paramVO), CONNECT_TIMEOUT, readTimeout);
+        } catch (XxlConfTransportException e) {
+            // rejected by admin, counted as fail
+        }
+        if (respJson == null) {
+            return null;
+        }
+        Map<String, Object> respObj = BasicJson.parseMap(respJson);
+        if (String.valueOf(SESSION_INVALID_CODE).equals(String.valueOf(respObj.get("code")))) {
+            sessionId = null;
+        }
+        if (!"200".equals(String.valueOf(respObj.get("code")))) {
+            return null;
+        }
+        return respObj;
+    }
+
+}
@@ -0,0 +1,132 @@
+package com.xxl.conf.loadtest;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.ThreadInfo;
+import java.lang.management.ThreadMXBean;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * load test report: applied latency percentiles, heap / thread / socket usage
+ */
+public class XxlConfLoadReport {
+
+    // ---------------------- latency ----------------------
+
+    private long[] latencies = new long[1024];
+    private int latencyCount = 0;
+    private final AtomicLong expected = new AtomicLong();
+    private final AtomicLong fail = new AtomicLong();
+
+    public synchronized void recordApplied(long latency) {
+        if (latencyCount == latencies.length) {
+            latencies = Arrays.copyOf(latencies, latencies.length * 2);
+        }
+        latencies[latencyCount++] = latency;
+    }
+
+    public synchronized int appliedCount() {
+        return latencyCount;
+    }
+
+    public void recordExpected(long count) {
+        expected.addAndGet(count);
+    }
+
+    public long expectedCount() {
+        return expected.get();
+    }
+
+    public void recordFail() {
+        fail.incrementAndGet();
+    }
+
+
+    // ---------------------- resource ----------------------
+
+    private volatile long peakHeapUsed;
+    private volatile int peakThreadCount;
+    private volatile int peakAdminThreadCount;
+    private volatile int peakSocketCount;
+
+    /**
+     * sample resource usage, invoke periodically
+     */
+    public void sample() {
+        MemoryMXBean memoryMXBean = ManagementFactory.getMemoryMXBean();
+        peakHeapUsed = Math.max(peakHeapUsed, memoryMXBean.getHeapMemoryUsage().getUsed());
+
+        ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+        peakThreadCount = Math.max(peakThreadCount, threadMXBean.getThreadCount());
+        peakAdminThreadCount = Math.max(peakAdminThreadCount, adminThreadCount(threadMXBean));
+
+        peakSocketCount = Math.max(peakSocketCount, socketCount());
+    }
+
+    /**
+     * admin threads: embedded tomcat + xxl-conf admin threads, excluding simulated clients
+     */
+    private static int adminThreadCount(ThreadMXBean threadMXBean) {
+        int count = 0;
+        for (ThreadInfo threadInfo: threadMXBean.getThreadInfo(threadMXBean.getAllThreadIds())) {
+            if (threadInfo != null
+                    && !threadInfo.getThreadName().startsWith(XxlConfLoadTest.CLIENT_THREAD_PREFIX)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * open socket fd of this process, linux only; -1 when unsupported
+     */
+    private static int socketCount() {
+        File[] fds = new File("/proc/self/fd").listFiles();
+        if (fds == null) {
+            return -1;
+        }
+        int count = 0;
+        for (File fd: fds) {
+            try {
+                if (Files.readSymbolicLink(fd.toPath()).toString().startsWith("socket:")) {
+                    count++;
+                }
+            } catch (IOException e) {
+                // fd closed
+            }
+        }
+        return count;
+    }
+
+
+    // ---------------------- report ----------------------
+
+    public synchronized String report() {
+        long[] sorted = Arrays.copyOf(latencies, latencyCount);
+        Arrays.sort(sorted);
+
+        StringBuilder report = new StringBuilder();
+        report.append("---------------------- xxl-conf loadtest report ----------------------\n");
+        report.append(String.format("applied / expected : %d / %d, request fail: %d%n", latencyCount, expected.get(), fail.get()));
+        report.append(String.format("applied latency(ms): p50=%d, p90=%d, p99=%d, p999=%d, max=%d%n",
+                percentile(sorted, 0.50), percentile(sorted, 0.90), percentile(sorted, 0.99), percentile(sorted, 0.999),
+                sorted.length>0?sorted[sorted.length-1]:0));
+        report.append(String.format("heap used (peak)   : %d MB (admin + simulated clients, same jvm)%n", peakHeapUsed / 1024 / 1024));
+        report.append(String.format("threads (peak)     : admin=%d, total=%d%n", peakAdminThreadCount, peakThreadCount));
+        report.append(String.format("sockets (peak)     : %d (client + admin side)%n", peakSocketCount));
+        return report.toString();
+    }
+
+    private static long percentile(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(percentile * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))];
+    }
+
+}
@@ -0,0 +1,206 @@
+package com.xxl.conf.loadtest;
+
+import com.xxl.conf.admin.XxlConfAdminApplication;
+import com.xxl.conf.admin.core.model.XxlConfNode;
+import com.xxl.conf.admin.core.model.XxlConfUser;
+import com.xxl.conf.admin.core.util.ReturnT;
+import com.xxl.conf.admin.service.IXxlConfNodeService;
+import com.xxl.conf.core.transport.impl.HttpXxlConfTransport;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.context.embedded.EmbeddedWebApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * xxl-conf-admin load test, fully offline:
+ *
+ *  1、start admin in-process, with embedded h2 database (mysql mode) and random port;
+ *  2、simulate N clients, each long polling M keys;
+ *  3、publish bursts by IXxlConfNodeService.update, value is the publish timestamp;
+ *  4、report publish-to-applied latency percentiles, heap / thread / socket usage.
+ *
+ *  java -jar xxl-conf-loadtest.jar clients=1000 keysPerClient=10 keyCount=1000 bursts=5 burstSize=100 burstInterval=5000
+ *  (jdk9+ need "--add-opens java.base/java.lang=ALL-UNNAMED", for spring 4.x cglib)
+ *
+ *  tip: mybatis database id "h2", for sql not supported by h2 (such as msg cleanup "DATE_ADD ... INTERVAL").
+ */
+public class XxlConfLoadTest {
+
+    public static final String CLIENT_THREAD_PREFIX = "xxl-conf-loadtest-client-";
+
+    private static final String ENV = "test";
+    private static final String APPNAME = "loadtest";
+    private static final long CLIENT_STOP_TIMEOUT = 35 * 1000;      // ms, more than monitor timeout (30s, jitter included)
+
+    public static void main(String[] args) throws Exception {
+
+        // param
+        Map<String, String> param = new HashMap<>();
+        for (String arg: args) {
+            String[] kv = arg.split("=", 2);
+            if (kv.length == 2) {
+                param.put(kv[0].trim(), kv[1].trim());
+            }
+        }
+        int clients = intParam(param, "clients", 1000);
+        int keysPerClient = intParam(param, "keysPerClient", 10);
+        int keyCount = intParam(param, "keyCount", 1000);
+        int bursts = intParam(param, "bursts", 5);
+        int burstSize = Math.min(intParam(param, "burstSize", 100), keyCount);
+        int burstInterval = intParam(param, "burstInterval", 5000);
+        int warmup = intParam(param, "warmup", 5000);
+        int drainTimeout = intParam(param, "drainTimeout", 30000);
+
+        // keep-alive connection for each client
+        System.setProperty("http.maxConnections", String.valueOf(clients));
+
+        // admin
+        ConfigurableApplicationContext adminContext = startAdmin();
+        int port = ((EmbeddedWebApplicationContext) adminContext).getEmbeddedServletContainer().getPort();
+        String adminAddress = "http://127.0.0.1:" + port + "/xxl-conf-admin";
+        IXxlConfNodeService nodeService = adminContext.getBean(IXxlConfNodeService.class);
+
+        XxlConfUser loginUser = new XxlConfUser();
+        loginUser.setUsername("admin");
+        loginUser.setPermission(1);
+
+        // conf keys
+        List<String> keyPool = new ArrayList<>();
+        for (int i = 0; i < keyCount; i++) {
+            XxlConfNode node = new XxlConfNode();
+            node.setEnv(ENV);
+            node.setAppname(APPNAME);
+            node.setKey(APPNAME + ".key" + i);
+            node.setTitle("loadtest");
+            node.setValue("");
+            assertSuccess(nodeService.add(node, loginUser, ENV));
+            keyPool.add(node.getKey());
+        }
+
+        // clients
+        final XxlConfLoadReport report = new XxlConfLoadReport();
+        HttpXxlConfTransport transport = new HttpXxlConfTransport();
+        Map<String, Integer> subscriberCount = new HashMap<>();
+        List<XxlConfLoadClient> clientList = new ArrayList<>();
+        List<Thread> clientThreadList = new ArrayList<>();
+        for (int i = 0; i < clients; i++) {
+            List<String> keys = new ArrayList<>();
+            for (int j = 0; j < keysPerClient && j < keyCount; j++) {
+                String key = keyPool.get((i * keysPerClient + j) % keyCount);
+                keys.add(key);
+                subscriberCount.put(key, (subscriberCount.containsKey(key)?subscriberCount.get(key):0) + 1);
+            }
+
+            XxlConfLoadClient client = new XxlConfLoadClient(adminAddress, ENV, keys, transport, report);
+            Thread clientThread = new Thread(client, CLIENT_THREAD_PREFIX + i);
+            clientThread.setDaemon(true);
+            clientThread.start();
+            clientList.add(client);
+            clientThreadList.add(clientThread);
+        }
+
+        // resource sampler
+        Thread sampler = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                while (true) {
+                    report.sample();
+                    try {
+                        TimeUnit.SECONDS.sleep(1);
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+            }
+        }, "xxl-conf-loadtest-sampler");
+        sampler.setDaemon(true);
+        sampler.start();
+
+        System.out.println(String.format(">>>>>>>>>>> xxl-conf loadtest, admin=%s, clients=%d, keysPerClient=%d, keyCount=%d",
+                adminAddress, clients, keysPerClient, keyCount));
+        TimeUnit.MILLISECONDS.sleep(warmup);
+
+        // publish bursts
+        Random random = new Random();
+        for (int burst = 0; burst < bursts; burst++) {
+            List<String> burstKeys = new ArrayList<>(keyPool);
+            Collections.shuffle(burstKeys, random);
+            for (String key: burstKeys.subList(0, burstSize)) {
+                XxlConfNode node = new XxlConfNode();
+                node.setEnv(ENV);
+                node.setKey(key);
+                node.setTitle("loadtest");
+                node.setValue(String.valueOf(System.currentTimeMillis()));
+                assertSuccess(nodeService.update(node, loginUser, ENV));
+
+                if (subscriberCount.containsKey(key)) {
+                    report.recordExpected(subscriberCount.get(key));
+                }
+            }
+            System.out.println(String.format(">>>>>>>>>>> xxl-conf loadtest, burst %d/%d published, applied %d/%d",
+                    burst + 1, bursts, report.appliedCount(), report.expectedCount()));
+            TimeUnit.MILLISECONDS.sleep(burstInterval);
+        }
+
+        // drain
+        long drainDeadline = System.currentTimeMillis() + drainTimeout;
+        while (report.appliedCount() < report.expectedCount() && System.currentTimeMillis() < drainDeadline) {
+            TimeUnit.MILLISECONDS.sleep(200);
+        }
+        report.sample();
+
+        // report
+        System.out.println(report.report());
+
+        for (XxlConfLoadClient client: clientList) {
+            client.stop();
+        }
+        sampler.interrupt();
+
+        // wait long polling in flight, not timeout into closing admin context
+        System.out.println(">>>>>>>>>>> xxl-conf loadtest, stopping clients, wait long polling in flight ...");
+        long stopDeadline = System.currentTimeMillis() + CLIENT_STOP_TIMEOUT;
+        for (Thread clientThread: clientThreadList) {
+            clientThread.join(Math.max(1, stopDeadline - System.currentTimeMillis()));
+        }
+        adminContext.close();
+        System.exit(0);
+    }
+
+    private static ConfigurableApplicationContext startAdmin() throws Exception {
+        File confDataPath = Files.createTempDirectory("xxl-conf-loadtest-confdata").toFile();
+        confDataPath.deleteOnExit();
+
+        // command line args, override admin application.properties
+        String[] adminArgs = new String[]{
+                "--server.port=0",
+                "--spring.datasource.url=jdbc:h2:mem:xxl-conf;MODE=MySQL;DB_CLOSE_DELAY=-1",
+                "--spring.datasource.username=sa",
+                "--spring.datasource.password=sa",
+                "--spring.datasource.driver-class-name=org.h2.Driver",
+                "--spring.datasource.schema=classpath:xxl-conf-h2.sql",
+                "--spring.datasource.tomcat.validation-query=SELECT 1",
+                "--spring.datasource.tomcat.max-active=50",
+                "--mybatis.configuration.database-id=h2",
+                "--server.tomcat.max-connections=20000",
+                "--xxl.conf.confdata.filepath=" + confDataPath.getPath(),
+                "--logging.level.root=WARN"
+        };
+        return SpringApplication.run(XxlConfAdminApplication.class, adminArgs);
+    }
+
+    private static int intParam(Map<String, String> param, String name, int defaultValue) {
+        return param.containsKey(name)?Integer.valueOf(param.get(name)):defaultValue;
+    }
+
+    private static void assertSuccess(ReturnT<String> result) {
+        if (result.getCode() != ReturnT.SUCCESS_CODE) {
+            throw new IllegalStateException("xxl-conf loadtest, publish fail: " + result.getMsg());
+        }
+    }
+
+}
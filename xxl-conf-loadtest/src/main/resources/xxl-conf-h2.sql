@@ -0,0 +1,56 @@
+-- xxl-conf schema for h2 (MODE=MySQL), same tables as "doc/db/xxl-conf.sql"
+
+CREATE TABLE `xxl_conf_env` (
+  `env` varchar(100) NOT NULL,
+  `title` varchar(100) NOT NULL,
+  `order` tinyint NOT NULL DEFAULT '0',
+  PRIMARY KEY (`env`)
+);
+
+CREATE TABLE `xxl_conf_project` (
+  `appname` varchar(100) NOT NULL,
+  `title` varchar(100) NOT NULL,
+  PRIMARY KEY (`appname`)
+);
+
+CREATE TABLE `xxl_conf_user` (
+  `username` varchar(100) NOT NULL,
+  `password` varchar(100) NOT NULL,
+  `permission` tinyint NOT NULL DEFAULT '0',
+  `permission_data` varchar(1000) DEFAULT NULL,
+  PRIMARY KEY (`username`)
+);
+
+CREATE TABLE `xxl_conf_node` (
+  `env` varchar(100) NOT NULL,
+  `key` varchar(200) NOT NULL,
+  `appname` varchar(100) NOT NULL,
+  `title` varchar(100) NOT NULL,
+  `value` varchar(2000) DEFAULT NULL,
+  `version` bigint NOT NULL DEFAULT '0',
+  PRIMARY KEY (`env`,`key`)
+);
+
+CREATE TABLE `xxl_conf_node_log` (
+  `env` varchar(255) NOT NULL,
+  `key` varchar(200) NOT NULL,
+  `title` varchar(100) NOT NULL,
+  `value` varchar(2000) DEFAULT NULL,
+  `addtime` datetime NOT NULL,
+  `optuser` varchar(100) NOT NULL
+);
+
+CREATE TABLE `xxl_conf_node_msg` (
+  `id` int NOT NULL AUTO_INCREMENT,
+  `addtime` datetime NOT NULL,
+  `env` varchar(100) NOT NULL,
+  `key` varchar(200) NOT NULL,
+  `value` varchar(2000) DEFAULT NULL,
+  `changeset` varchar(64) DEFAULT NULL,
+  PRIMARY KEY (`id`)
+);
+CREATE INDEX `I_changeset` ON `xxl_conf_node_msg` (`changeset`);
+
+INSERT INTO `xxl_conf_env` VALUES ('test', 'test', 1);
+INSERT INTO `xxl_conf_project` VALUES ('loadtest', 'loadtest');
+INSERT INTO `xxl_conf_user` VALUES ('admin', 'e10adc3949ba59abbe56e057f20f883e', 1, NULL);